@@ -0,0 +1,223 @@
+package game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent headless games side by side for training agents.
+ * <p>
+ * Each call to {@link #step(int[])} applies one action per game, advances every game by one
+ * tick and writes the resulting observations into a single buffer. The games are split into
+ * contiguous shards, one per worker thread. The buffer can be backed by a memory-mapped file so
+ * a trainer in another process reads the observations in place.
+ * <p>
+ * Observations are little-endian floats, {@link #getObservationFloats()} per game, laid out as:
+ * player x, player y, player rotation, score, done flag, then x and y of every enemy, then the
+ * rotation of every spinning rectangle. A game that finished on the previous step is reset
+ * before its next action is applied.
+ */
+public class BatchEnvironment implements AutoCloseable {
+
+    /** Action bit: hold the up key. */
+    public static final int UP = 1;
+    /** Action bit: hold the down key. */
+    public static final int DOWN = 2;
+    /** Action bit: hold the left key. */
+    public static final int LEFT = 4;
+    /** Action bit: hold the right key. */
+    public static final int RIGHT = 8;
+    /** Action bit: hold the spin key. */
+    public static final int SPIN = 16;
+
+    private static final int HEADER_FLOATS = 5;
+
+    private final WorldsHardestGame[] games;
+    private final ByteBuffer observations;
+    private final FileChannel file;  // Null unless the buffer is memory-mapped
+    private final int observationFloats;
+    private final ExecutorService workers;
+    private final List<Callable<Void>> shards = new ArrayList<>();
+    private int[] actions;
+
+    /**
+     * Constructs a BatchEnvironment with observations in a direct buffer.
+     *
+     * @param count   The number of games.
+     * @param threads The number of worker threads.
+     */
+    public BatchEnvironment(int count, int threads) {
+        this(count, threads, null);
+    }
+
+    /**
+     * Constructs a BatchEnvironment, optionally writing observations to a memory-mapped file.
+     *
+     * @param count   The number of games.
+     * @param threads The number of worker threads.
+     * @param path    The file to map, created or resized as needed, or null for a direct buffer.
+     * @throws IllegalStateException If the file cannot be mapped.
+     */
+    public BatchEnvironment(int count, int threads, Path path) {
+        games = new WorldsHardestGame[count];
+        for (int i = 0; i < count; i++) {
+            games[i] = WorldsHardestGame.createHeadless();
+        }
+        WorldsHardestGame first = games[0];
+        observationFloats = HEADER_FLOATS + 2 * first.enemies.size() + first.spinningRectangles.size();
+
+        int size = count * observationFloats * Float.BYTES;
+        if (path == null) {
+            file = null;
+            observations = ByteBuffer.allocateDirect(size);
+        } else {
+            try {
+                file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                observations = file.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map observations to " + path, e);
+            }
+        }
+        observations.order(ByteOrder.LITTLE_ENDIAN);
+
+        int shardCount = Math.max(1, Math.min(threads, count));
+        workers = Executors.newFixedThreadPool(shardCount, runnable -> {
+            Thread thread = new Thread(runnable, "batch-environment");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int s = 0; s < shardCount; s++) {
+            int from = (int) ((long) count * s / shardCount);
+            int to = (int) ((long) count * (s + 1) / shardCount);
+            shards.add(() -> {
+                for (int i = from; i < to; i++) {
+                    stepGame(i);
+                }
+                return null;
+            });
+        }
+
+        for (int i = 0; i < count; i++) {
+            writeObservation(i);
+        }
+    }
+
+    /**
+     * Applies one action to every game and advances them all by one tick.
+     *
+     * @param actions One bitmask of {@link #UP}, {@link #DOWN}, {@link #LEFT}, {@link #RIGHT} and
+     *                {@link #SPIN} per game.
+     * @return The observation buffer, updated in place.
+     */
+    public ByteBuffer step(int[] actions) {
+        if (actions.length != games.length) {
+            throw new IllegalArgumentException("Expected " + games.length + " actions, got " + actions.length);
+        }
+        this.actions = actions;
+        try {
+            for (Future<Void> future : workers.invokeAll(shards)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed to step", e.getCause());
+        }
+        return observations;
+    }
+
+    /**
+     * Gets the buffer the observations are written to.
+     *
+     * @return The observation buffer.
+     */
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    /**
+     * Gets the number of floats written per game.
+     *
+     * @return The observation size in floats.
+     */
+    public int getObservationFloats() {
+        return observationFloats;
+    }
+
+    /**
+     * Gets the number of games.
+     *
+     * @return The batch size.
+     */
+    public int size() {
+        return games.length;
+    }
+
+    /**
+     * Stops the worker threads and closes the mapped file, if any.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        workers.shutdown();
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    /**
+     * Resets the game if it finished last step, applies its action and advances it.
+     */
+    private void stepGame(int i) {
+        WorldsHardestGame game = games[i];
+        if (game.gameCompleted) {
+            game.reset();
+        }
+
+        int action = actions[i];
+        Player player = game.player;
+        player.setMovingUp((action & UP) != 0);
+        player.setMovingDown((action & DOWN) != 0);
+        player.setMovingLeft((action & LEFT) != 0);
+        player.setMovingRight((action & RIGHT) != 0);
+        player.setSpinning((action & SPIN) != 0);
+
+        game.tick();
+        writeObservation(i);
+    }
+
+    /**
+     * Writes one game's observation into its slice of the buffer.
+     */
+    private void writeObservation(int i) {
+        WorldsHardestGame game = games[i];
+        int at = i * observationFloats * Float.BYTES;
+        observations.putFloat(at, (float) game.player.position.x);
+        observations.putFloat(at + 4, (float) game.player.position.y);
+        observations.putFloat(at + 8, (float) game.player.rotation);
+        observations.putFloat(at + 12, game.getPlayerScore());
+        observations.putFloat(at + 16, game.gameCompleted ? 1f : 0f);
+        at += HEADER_FLOATS * Float.BYTES;
+
+        for (Enemy enemy : game.enemies) {
+            observations.putFloat(at, (float) enemy.position.x);
+            observations.putFloat(at + 4, (float) enemy.position.y);
+            at += 8;
+        }
+        for (SpinningRectangle spinningRectangle : game.spinningRectangles) {
+            observations.putFloat(at, (float) spinningRectangle.rotation);
+            at += 4;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the hazards touching the player without changing anything, so the search can be
+ * split across threads. The caller then resolves the hits on its own thread.
+ * <p>
+ * Small levels are scanned sequentially. Once a level has at least the parallel threshold of
+ * hazards, they are split into chunks that are checked in parallel on the common fork-join
+ * pool. The threshold defaults to the {@code game.parallelCollisionThreshold} system property.
+ * <p>
+ * With swept collision on (the {@code game.sweptCollision} system property by default), each
+ * hazard is tested over its whole move since the last tick rather than only where it ended up,
+ * which keeps collisions exact at low tick rates. See {@link SweptCollision}.
+ */
+public class CollisionDetector {
+
+    /** The hazard count at which the parallel search is used when none is given. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.getInteger("game.parallelCollisionThreshold", 2048);
+
+    /** Whether swept collision is used when not specified. */
+    public static final boolean DEFAULT_SWEPT = Boolean.getBoolean("game.sweptCollision");
+
+    private static final int CHUNK_SIZE = 512;
+
+    private final int parallelThreshold;
+    private final boolean swept;
+
+    /**
+     * Constructs a CollisionDetector with the default parallel threshold and swept setting.
+     */
+    public CollisionDetector() {
+        this(DEFAULT_PARALLEL_THRESHOLD, DEFAULT_SWEPT);
+    }
+
+    /**
+     * Constructs a CollisionDetector with the default swept setting.
+     *
+     * @param parallelThreshold The hazard count at which the search runs in parallel.
+     */
+    public CollisionDetector(int parallelThreshold) {
+        this(parallelThreshold, DEFAULT_SWEPT);
+    }
+
+    /**
+     * Constructs a CollisionDetector.
+     *
+     * @param parallelThreshold The hazard count at which the search runs in parallel.
+     * @param swept             True to test each hazard's whole move since the last tick.
+     */
+    public CollisionDetector(int parallelThreshold, boolean swept) {
+        this.parallelThreshold = parallelThreshold;
+        this.swept = swept;
+    }
+
+    /**
+     * Finds the first hazard, in list order, that touches the player. The answer is the same
+     * whether the search ran in parallel or not.
+     *
+     * @param hazards The hazards to check.
+     * @param player  The player.
+     * @return The first hazard touching the player, or null if none do.
+     */
+    public IntersectionDetectable findFirstHit(List<? extends IntersectionDetectable> hazards, Player player) {
+        Point[] playerPoints = swept ? null : player.getPoints();
+        int count = hazards.size();
+
+        if (count < parallelThreshold) {
+            for (int i = 0; i < count; i++) {
+                if (hits(hazards.get(i), player, playerPoints)) {
+                    return hazards.get(i);
+                }
+            }
+            return null;
+        }
+
+        OptionalInt first = IntStream.range(0, chunkCount(count)).parallel()
+                .map(chunk -> {
+                    for (int i = chunk * CHUNK_SIZE, end = Math.min(count, i + CHUNK_SIZE); i < end; i++) {
+                        if (hits(hazards.get(i), player, playerPoints)) {
+                            return i;
+                        }
+                    }
+                    return -1;
+                })
+                .filter(i -> i >= 0)
+                .min();
+        return first.isPresent() ? hazards.get(first.getAsInt()) : null;
+    }
+
+    /**
+     * Finds every hazard that touches the player.
+     *
+     * @param hazards The hazards to check.
+     * @param player  The player.
+     * @return The hazards touching the player, in list order.
+     */
+    public List<IntersectionDetectable> findAllHits(List<? extends IntersectionDetectable> hazards, Player player) {
+        Point[] playerPoints = swept ? null : player.getPoints();
+        int count = hazards.size();
+        List<IntersectionDetectable> hits = new ArrayList<>();
+
+        if (count < parallelThreshold) {
+            for (IntersectionDetectable hazard : hazards) {
+                if (hits(hazard, player, playerPoints)) {
+                    hits.add(hazard);
+                }
+            }
+            return hits;
+        }
+
+        IntStream.range(0, count).parallel()
+                .filter(i -> hits(hazards.get(i), player, playerPoints))
+                .forEachOrdered(i -> hits.add(hazards.get(i)));
+        return hits;
+    }
+
+    private boolean hits(IntersectionDetectable hazard, Player player, Point[] playerPoints) {
+        return swept ? hazard.intersectsSwept(player) : hazard.intersects(playerPoints);
+    }
+
+    private static int chunkCount(int count) {
+        return (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+}
@@ -0,0 +1,152 @@
+package game;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Compares the hash streams of two runs and reports the first tick and entities where they
+ * differ.
+ * <p>
+ * Each stream holds one record per simulated tick. Records are compared by position, and the
+ * tick reported is the one stored in the record, which differs from its position once the game
+ * has been rewound.
+ * <p>
+ * The first divergent tick is found by binary search over the chained hashes. The worlds
+ * themselves can fall back into sync, for example when the player is clamped against a wall or
+ * respawns, but each chained hash covers every tick before it, so once two streams differ they
+ * differ from then on.
+ */
+public class DesyncBisect implements AutoCloseable {
+
+    private final RandomAccessFile a;
+    private final RandomAccessFile b;
+    private final int entityCount;
+    private final long records;
+
+    /**
+     * Opens two hash streams for comparison.
+     *
+     * @param pathA The first stream.
+     * @param pathB The second stream.
+     * @throws IOException If either file cannot be read or they hash different worlds.
+     */
+    public DesyncBisect(String pathA, String pathB) throws IOException {
+        a = new RandomAccessFile(pathA, "r");
+        b = new RandomAccessFile(pathB, "r");
+        if (a.readInt() != HashStreamWriter.MAGIC || b.readInt() != HashStreamWriter.MAGIC) {
+            throw new IOException("Not a hash stream");
+        }
+        entityCount = a.readInt();
+        if (b.readInt() != entityCount) {
+            throw new IOException("The runs have different numbers of entities");
+        }
+        long recordBytes = 8L * (2 + entityCount);
+        records = Math.min(a.length() - HashStreamWriter.HEADER_BYTES, b.length() - HashStreamWriter.HEADER_BYTES) / recordBytes;
+    }
+
+    /**
+     * Finds the first record whose chained hashes differ.
+     *
+     * @return The record index, starting at 0, or -1 if every record both runs reached matches.
+     * @throws IOException If the streams cannot be read.
+     */
+    public long findFirstDivergentRecord() throws IOException {
+        long low = 0, high = records;  // The first divergent record is in [low, high], high meaning none
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (read(a, mid, 1) != read(b, mid, 1)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low == records ? -1 : low;
+    }
+
+    /**
+     * Gets the tick a record of the first stream was written for.
+     *
+     * @param record The record index.
+     * @return The simulation tick.
+     * @throws IOException If the stream cannot be read.
+     */
+    public long getTickA(long record) throws IOException {
+        return read(a, record, 0);
+    }
+
+    /**
+     * Gets the tick a record of the second stream was written for.
+     *
+     * @param record The record index.
+     * @return The simulation tick.
+     * @throws IOException If the stream cannot be read.
+     */
+    public long getTickB(long record) throws IOException {
+        return read(b, record, 0);
+    }
+
+    /**
+     * Finds the entities whose hashes differ in a record.
+     *
+     * @param record The record index.
+     * @return A description of each divergent entity, separated by commas.
+     * @throws IOException If the streams cannot be read.
+     */
+    public String describeDivergence(long record) throws IOException {
+        StringBuilder entities = new StringBuilder();
+        for (int i = 0; i < entityCount; i++) {
+            if (read(a, record, 2 + i) != read(b, record, 2 + i)) {
+                if (entities.length() > 0) {
+                    entities.append(", ");
+                }
+                entities.append(StateHasher.describe(i));
+            }
+        }
+        return entities.toString();
+    }
+
+    /**
+     * Gets the number of records both streams cover.
+     *
+     * @return The record count.
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        a.close();
+        b.close();
+    }
+
+    private long read(RandomAccessFile file, long record, int slot) throws IOException {
+        file.seek(HashStreamWriter.HEADER_BYTES + (record * (2 + entityCount) + slot) * 8L);
+        return file.readLong();
+    }
+
+    /**
+     * Compares two hash streams from the command line.
+     * <p>
+     * Usage: {@code DesyncBisect <run-a.hashes> <run-b.hashes>}
+     *
+     * @param args The two hash stream files.
+     * @throws IOException If either file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DesyncBisect <run-a.hashes> <run-b.hashes>");
+            System.exit(1);
+        }
+        try (DesyncBisect bisect = new DesyncBisect(args[0], args[1])) {
+            long record = bisect.findFirstDivergentRecord();
+            if (record < 0) {
+                System.out.println("No divergence in " + bisect.getRecords() + " ticks");
+            } else {
+                long tickA = bisect.getTickA(record), tickB = bisect.getTickB(record);
+                String tick = tickA == tickB ? "tick " + tickA : "tick " + tickA + " of the first run and " + tickB + " of the second";
+                System.out.println("First divergence at " + tick + ": " + bisect.describeDivergence(record));
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ public class Enemy extends Polygon implements IntersectionDetectable {
     private double radius;  // Radius of the enemy
     private boolean movingUp;  // Direction of movement
     private double speed;
+    private final double startY;  // Where the enemy was placed, for resetting
 
     /**
      * Constructs an Enemy with the specified position, radius, and speed.
@@ -21,10 +22,20 @@ public class Enemy extends Polygon implements IntersectionDetectable {
      * @param speed  The speed at which the enemy moves.
      */
     public Enemy(double x, double y, double radius, double speed) {
-        super(generateCirclePoints(x, y, radius, 36), new Point(x, y), 0);
+        super(ShapeRegistry.circle(radius, 36), new Point(x, y), 0);
         this.radius = radius;
         this.speed = speed;
         this.movingUp = true;  // Start moving up
+        this.startY = y;
+    }
+
+    /**
+     * Puts the enemy back where it was placed, moving up.
+     */
+    public void reset() {
+        position.setY(startY);
+        movingUp = true;
+        rememberPosition();
     }
 
     /**
@@ -32,6 +43,8 @@ public class Enemy extends Polygon implements IntersectionDetectable {
      * Reverses direction when reaching the top or bottom of the board.
      */
     public void move() {
+        rememberPosition();
+
         // Move the enemy up or down based on the direction
         if (movingUp) {
             position.setY(position.getY() - speed);
@@ -46,6 +59,24 @@ public class Enemy extends Polygon implements IntersectionDetectable {
         }
     }
 
+    /**
+     * Checks whether the enemy is currently moving up.
+     *
+     * @return True if moving up, false if moving down.
+     */
+    public boolean isMovingUp() {
+        return movingUp;
+    }
+
+    /**
+     * Sets the direction of movement, for example when restoring a saved state.
+     *
+     * @param movingUp True to move up, false to move down.
+     */
+    public void setMovingUp(boolean movingUp) {
+        this.movingUp = movingUp;
+    }
+
     /**
      * Checks for intersection with a player using custom intersection logic.
      *
@@ -53,36 +84,34 @@ public class Enemy extends Polygon implements IntersectionDetectable {
      * @return True if the enemy intersects with the player, false otherwise.
      */
     public boolean intersects(Player player) {
-        // Check if any point of the player is inside the enemy
-        for (Point playerPoint : player.getPoints()) {
-            if (this.contains(playerPoint)) {
-                return true;
-            }
-        }
-        return false;
+        return intersects(player.getPoints());
     }
 
     /**
-     * Generates points for a circle based on the specified parameters.
+     * Checks whether the player touched this object at any moment between both objects'
+     * previous and current positions, using {@link SweptCollision}.
      *
-     * @param x      The x-coordinate of the circle's center.
-     * @param y      The y-coordinate of the circle's center.
-     * @param radius The radius of the circle.
-     * @param sides  The number of sides to approximate the circle.
-     * @return An array of points representing the circle.
+     * @param player The player to check for intersection.
+     * @return True if the swept shapes intersect, false otherwise.
      */
-    private static Point[] generateCirclePoints(double x, double y, double radius, int sides) {
-        Point[] points = new Point[sides];
-        double angleIncrement = 360.0 / sides;
+    public boolean intersectsSwept(Player player) {
+        return SweptCollision.intersects(this, player);
+    }
 
-        for (int i = 0; i < sides; i++) {
-            double angle = Math.toRadians(i * angleIncrement);
-            double newX = x + radius * Math.cos(angle);
-            double newY = y + radius * Math.sin(angle);
-            points[i] = new Point(newX, newY);
+    /**
+     * Checks for intersection with a player whose points have already been computed.
+     *
+     * @param playerPoints The player's points, as returned by {@link Player#getPoints()}.
+     * @return True if the enemy intersects with the player, false otherwise.
+     */
+    public boolean intersects(Point[] playerPoints) {
+        // Check if any point of the player is inside the enemy
+        for (Point playerPoint : playerPoints) {
+            if (this.contains(playerPoint)) {
+                return true;
+            }
         }
-
-        return points;
+        return false;
     }
 
     /**
@@ -0,0 +1,49 @@
+package game;
+
+/**
+ * Helpers for 48.16 fixed-point arithmetic stored in a long.
+ * Integer math gives the same bits on every JVM, which replays and lockstep
+ * play rely on, and it avoids floating point in the polygon hot loops.
+ */
+final class Fixed {
+
+    /** Number of fractional bits. */
+    static final int SHIFT = 16;
+
+    /** The fixed-point representation of 1.0. */
+    static final long ONE = 1L << SHIFT;
+
+    private Fixed() {
+    }
+
+    /**
+     * Converts a double to fixed point, rounding to the nearest step.
+     *
+     * @param value The value to convert.
+     * @return The fixed-point value.
+     */
+    static long fromDouble(double value) {
+        return Math.round(value * ONE);
+    }
+
+    /**
+     * Converts a fixed-point value back to a double. The conversion is exact.
+     *
+     * @param value The fixed-point value.
+     * @return The value as a double.
+     */
+    static double toDouble(long value) {
+        return (double) value / ONE;
+    }
+
+    /**
+     * Multiplies two fixed-point values.
+     *
+     * @param a The first factor.
+     * @param b The second factor.
+     * @return The product, in fixed point.
+     */
+    static long mul(long a, long b) {
+        return (a * b) >> SHIFT;
+    }
+}
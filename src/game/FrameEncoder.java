@@ -0,0 +1,117 @@
+package game;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes rendered frames somewhere. Implementations must be safe to call from
+ * several worker threads at once, each with a different frame.
+ */
+public interface FrameEncoder extends AutoCloseable {
+
+    /**
+     * Encodes one frame.
+     *
+     * @param frame The index of the frame, starting at 0.
+     * @param image The rendered frame, of type {@link BufferedImage#TYPE_INT_RGB}.
+     * @throws IOException If the frame cannot be written.
+     */
+    void encode(int frame, BufferedImage image) throws IOException;
+
+    /**
+     * Flushes and releases anything held by the encoder.
+     *
+     * @throws IOException If the output cannot be finished.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Writes each frame to its own numbered PNG file in a directory.
+     */
+    class PngSequence implements FrameEncoder {
+        private final File directory;
+
+        /**
+         * Constructs a PngSequence writing into the specified directory.
+         *
+         * @param directory The directory for the frame_NNNNNN.png files; created if missing.
+         * @throws IOException If the directory cannot be created.
+         */
+        public PngSequence(File directory) throws IOException {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            this.directory = directory;
+        }
+
+        @Override
+        public void encode(int frame, BufferedImage image) throws IOException {
+            File file = new File(directory, String.format("frame_%06d.png", frame));
+            if (!ImageIO.write(image, "png", file)) {
+                throw new IOException("No PNG writer available");
+            }
+        }
+
+        @Override
+        public void close() {
+            // Every frame is already in its own finished file
+        }
+    }
+
+    /**
+     * Streams frames as packed 8-bit RGB into a single file. Every frame has
+     * the same size, so workers write to their own offset in parallel and the
+     * file still ends up in frame order.
+     */
+    class RawRgb implements FrameEncoder {
+        private final FileChannel channel;
+        private final int frameBytes;
+        private final ThreadLocal<ByteBuffer> scratch;
+
+        /**
+         * Constructs a RawRgb encoder writing to the specified file.
+         *
+         * @param file   The output file; truncated if it already exists.
+         * @param width  The frame width in pixels.
+         * @param height The frame height in pixels.
+         * @throws IOException If the file cannot be opened.
+         */
+        public RawRgb(Path file, int width, int height) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.frameBytes = width * height * 3;
+            this.scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(frameBytes));
+        }
+
+        @Override
+        public void encode(int frame, BufferedImage image) throws IOException {
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            ByteBuffer out = scratch.get();
+            out.clear();
+            for (int rgb : pixels) {
+                out.put((byte) (rgb >> 16));
+                out.put((byte) (rgb >> 8));
+                out.put((byte) rgb);
+            }
+            out.flip();
+
+            long offset = (long) frame * frameBytes;
+            while (out.hasRemaining()) {
+                offset += channel.write(out, offset);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -30,6 +30,14 @@ abstract class Game extends Canvas {
     buffer = createImage(width, height);
 	}
   
+  // This constructor skips the window entirely, so the game can be painted
+  // into offscreen images when there is no display (java.awt.headless).
+  protected Game(int inWidth, int inHeight) {
+    width = inWidth;
+    height = inHeight;
+    on = false;
+  }
+  
   // 'paint' will be called every tenth of a second that the game is on.
 	abstract public void paint(Graphics brush);
   
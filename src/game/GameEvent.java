@@ -0,0 +1,72 @@
+package game;
+
+/**
+ * One slot in the {@link GameEventBus} ring. Slots are allocated once and reused, so the
+ * fields are overwritten each time an event is published into them.
+ */
+public class GameEvent {
+
+    /**
+     * The kinds of event the simulation publishes.
+     */
+    public enum Type {
+        /** The player touched a hazard and was respawned. */
+        PLAYER_DIED,
+        /** The player reached the right green area. */
+        LEVEL_COMPLETED,
+        /** The player's score changed. */
+        SCORE_CHANGED
+    }
+
+    Type type;
+    long tick;
+    int score;
+    long elapsedMillis;
+    IntersectionDetectable hazard;
+
+    /**
+     * Gets the kind of event.
+     *
+     * @return The event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the simulation tick the event happened on.
+     *
+     * @return The tick.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the player's score when the event happened.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets how long the run had taken, for {@link Type#LEVEL_COMPLETED} events. It is measured
+     * when the level is completed, so it does not include time spent waiting in the bus.
+     *
+     * @return The elapsed time in milliseconds, or 0 for other event types.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the hazard that hit the player, for {@link Type#PLAYER_DIED} events.
+     *
+     * @return The hazard, or null for other event types.
+     */
+    public IntersectionDetectable getHazard() {
+        return hazard;
+    }
+}
@@ -0,0 +1,174 @@
+package game;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves side effects such as logging and saving off the game thread.
+ * <p>
+ * The game thread publishes events into a preallocated ring of {@link GameEvent} slots and a
+ * single dispatcher thread hands them to the listeners. Publishing only fills a slot and
+ * advances a counter, so it never allocates, locks or blocks; if the ring is full the event is
+ * dropped and counted instead. Only one thread may publish.
+ * <p>
+ * The dispatcher parks whenever the ring is empty and the publisher unparks it when it
+ * publishes into an empty ring, so an idle bus uses no CPU. The head and tail are written with
+ * full fences so that either the publisher sees the ring was empty or the dispatcher sees the
+ * new event, and a wakeup is never lost.
+ */
+public class GameEventBus implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final GameEvent[] ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();  // Next sequence to publish
+    private final AtomicLong tail = new AtomicLong();  // Next sequence to dispatch
+    private final CopyOnWriteArrayList<GameEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+    private long dropped;
+
+    /**
+     * Constructs a GameEventBus with the default capacity and starts its dispatcher thread.
+     */
+    public GameEventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a GameEventBus and starts its dispatcher thread.
+     *
+     * @param capacity The number of slots in the ring, rounded up to a power of two.
+     */
+    public GameEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new GameEvent();
+        }
+        mask = size - 1;
+
+        dispatcher = new Thread(this::dispatchLoop, "game-events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Registers a listener. Safe to call from any thread.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener(GameEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Publishes a {@link GameEvent.Type#PLAYER_DIED} event.
+     *
+     * @param hazard The hazard that hit the player.
+     * @param score  The score after the hit.
+     * @param tick   The current tick.
+     */
+    public void publishPlayerDied(IntersectionDetectable hazard, int score, long tick) {
+        publish(GameEvent.Type.PLAYER_DIED, hazard, score, tick, 0);
+    }
+
+    /**
+     * Publishes a {@link GameEvent.Type#LEVEL_COMPLETED} event.
+     *
+     * @param score         The final score.
+     * @param tick          The current tick.
+     * @param elapsedMillis How long the run took.
+     */
+    public void publishLevelCompleted(int score, long tick, long elapsedMillis) {
+        publish(GameEvent.Type.LEVEL_COMPLETED, null, score, tick, elapsedMillis);
+    }
+
+    /**
+     * Publishes a {@link GameEvent.Type#SCORE_CHANGED} event.
+     *
+     * @param score The new score.
+     * @param tick  The current tick.
+     */
+    public void publishScoreChanged(int score, long tick) {
+        publish(GameEvent.Type.SCORE_CHANGED, null, score, tick, 0);
+    }
+
+    /**
+     * Gets the number of events dropped because the ring was full. Only meaningful on the
+     * publishing thread.
+     *
+     * @return The dropped event count.
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Dispatches any events still in the ring, then stops the dispatcher thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(GameEvent.Type type, IntersectionDetectable hazard, int score, long tick, long elapsedMillis) {
+        long sequence = head.get();
+        if (sequence - tail.get() > mask) {
+            dropped++;
+            return;
+        }
+        GameEvent event = ring[(int) sequence & mask];
+        event.type = type;
+        event.hazard = hazard;
+        event.score = score;
+        event.tick = tick;
+        event.elapsedMillis = elapsedMillis;
+        head.set(sequence + 1);
+        if (tail.get() == sequence) {
+            LockSupport.unpark(dispatcher);  // The dispatcher may be parked on an empty ring
+        }
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence == head.get()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.park(this);
+                continue;
+            }
+
+            GameEvent event = ring[(int) sequence & mask];
+            for (GameEventListener listener : listeners) {
+                try {
+                    switch (event.type) {
+                        case PLAYER_DIED:
+                            listener.onPlayerDied(event.hazard, event.tick);
+                            break;
+                        case LEVEL_COMPLETED:
+                            listener.onLevelCompleted(event.score, event.tick, event.elapsedMillis);
+                            break;
+                        case SCORE_CHANGED:
+                            listener.onScoreChanged(event.score, event.tick);
+                            break;
+                    }
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            event.hazard = null;
+            tail.set(sequence + 1);
+        }
+    }
+}
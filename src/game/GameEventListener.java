@@ -0,0 +1,36 @@
+package game;
+
+/**
+ * Receives game events on the {@link GameEventBus} thread, never on the game thread.
+ * Override only the events of interest.
+ */
+public interface GameEventListener {
+
+    /**
+     * Called when the player touches a hazard and is respawned.
+     *
+     * @param hazard The hazard that hit the player.
+     * @param tick   The tick it happened on.
+     */
+    default void onPlayerDied(IntersectionDetectable hazard, long tick) {
+    }
+
+    /**
+     * Called when the player reaches the right green area.
+     *
+     * @param score         The final score.
+     * @param tick          The tick it happened on.
+     * @param elapsedMillis How long the run took, measured on the game thread.
+     */
+    default void onLevelCompleted(int score, long tick, long elapsedMillis) {
+    }
+
+    /**
+     * Called when the player's score changes.
+     *
+     * @param score The new score.
+     * @param tick  The tick it happened on.
+     */
+    default void onScoreChanged(int score, long tick) {
+    }
+}
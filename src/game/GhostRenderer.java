@@ -0,0 +1,101 @@
+package game;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Draws past runs as translucent ghosts of the player.
+ * <p>
+ * Each ghost is just a {@link TrajectoryReader} streaming its run from disk. All of them are
+ * drawn from the shared player {@link PolygonShape} into the same coordinate arrays, so drawing
+ * hundreds of ghosts creates no Player, Polygon or Point objects. The methods are synchronized
+ * only so the shutdown hook can close the files while the game is still painting.
+ */
+public class GhostRenderer implements AutoCloseable {
+
+    private static final Color GHOST_COLOR = new Color(255, 0, 0, 60);  // Translucent red
+
+    private final PolygonShape shape = ShapeRegistry.player();
+    private final List<TrajectoryReader> ghosts = new ArrayList<>();
+    private final int[] xPoints = new int[shape.size()];
+    private final int[] yPoints = new int[shape.size()];
+
+    /**
+     * Opens a ghost for each trajectory file. Files that cannot be opened are skipped.
+     *
+     * @param files The trajectory files, for example from {@link TrajectoryStore#best(int)}.
+     */
+    public GhostRenderer(List<File> files) {
+        for (File file : files) {
+            try {
+                ghosts.add(new TrajectoryReader(file));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Moves every ghost to the specified tick. If the game went backwards each ghost resumes
+     * from its nearest checkpoint. A ghost whose run is shorter stays at its final position.
+     *
+     * @param tick The game's current tick.
+     */
+    public synchronized void advanceTo(long tick) {
+        for (Iterator<TrajectoryReader> it = ghosts.iterator(); it.hasNext(); ) {
+            TrajectoryReader ghost = it.next();
+            try {
+                ghost.seek((int) tick);
+            } catch (IOException e) {
+                e.printStackTrace();
+                closeQuietly(ghost);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Paints every ghost that has started its run.
+     *
+     * @param brush The graphics context to paint on.
+     */
+    public synchronized void paint(Graphics brush) {
+        brush.setColor(GHOST_COLOR);
+        for (TrajectoryReader ghost : ghosts) {
+            if (ghost.getTick() == 0) {
+                continue;
+            }
+            shape.transform(ghost.getX(), ghost.getY(), ghost.getRotation(), xPoints, yPoints);
+            brush.fillPolygon(xPoints, yPoints, xPoints.length);
+        }
+    }
+
+    /**
+     * Gets the number of ghosts being drawn.
+     *
+     * @return The ghost count.
+     */
+    public synchronized int size() {
+        return ghosts.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (TrajectoryReader ghost : ghosts) {
+            closeQuietly(ghost);
+        }
+        ghosts.clear();
+    }
+
+    private static void closeQuietly(TrajectoryReader ghost) {
+        try {
+            ghost.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
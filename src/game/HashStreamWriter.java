@@ -0,0 +1,155 @@
+package game;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the chained world hash and the entity hashes after every tick so two runs can be
+ * compared later with {@link DesyncBisect}.
+ * <p>
+ * The file starts with a magic number and the entity count. Each tick then takes a fixed
+ * number of bytes: the tick number, the chained hash and every entity hash, which lets the
+ * comparison jump straight to any record. The tick number is stored because rewinding repeats
+ * ticks, so after a rewind a record's position no longer gives its tick. The chained hash folds
+ * each tick's world hash into the one before, so once two runs differ their chained hashes
+ * differ at every later tick, even if the worlds themselves fall back into sync.
+ * <p>
+ * {@link #write(StateHasher, long)} only copies the hashes into a preallocated ring; a background
+ * thread drains the ring to disk, so the game thread never waits on the file. Every tick must
+ * reach the file for the offsets to line up, so if the disk falls a whole ring behind, the
+ * game thread waits for space rather than dropping ticks. The writer thread parks while the
+ * ring is empty and is unparked when a tick goes into an empty ring, as in
+ * {@link GameEventBus}.
+ */
+public class HashStreamWriter implements AutoCloseable {
+
+    /** The first four bytes of every hash stream. */
+    static final int MAGIC = 0x57485332;
+    /** The size of the file header in bytes. */
+    static final int HEADER_BYTES = 8;
+
+    private static final int CAPACITY = 4096;  // Ticks the ring holds, a power of two
+
+    private final DataOutputStream out;
+    private final int entityCount;
+    private final int recordLongs;
+    private final long[] ring;  // CAPACITY x recordLongs
+    private final AtomicLong head = new AtomicLong();  // The next tick to be copied in
+    private final AtomicLong tail = new AtomicLong();  // The next tick to be written out
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private long chainedHash;  // Only touched by the game thread
+
+    /**
+     * Creates a hash stream file and starts the thread that writes it.
+     *
+     * @param file        The file to write; replaced if it exists.
+     * @param entityCount The number of entities hashed each tick.
+     * @throws IOException If the file cannot be created.
+     */
+    public HashStreamWriter(File file, int entityCount) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.entityCount = entityCount;
+        this.recordLongs = 2 + entityCount;
+        this.ring = new long[CAPACITY * recordLongs];
+        out.writeInt(MAGIC);
+        out.writeInt(entityCount);
+
+        writer = new Thread(this::writeLoop, "hash-stream");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends the hashes for one tick. Ticks appended after the stream is closed are ignored.
+     *
+     * @param hasher The hasher holding the current state's hashes.
+     * @param tick   The tick the hashes are for.
+     * @throws IOException If an earlier tick could not be written.
+     */
+    public void write(StateHasher hasher, long tick) throws IOException {
+        long sequence = head.get();
+        while (sequence - tail.get() >= CAPACITY) {
+            checkOpen();
+            if (closed) {
+                return;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+        checkOpen();
+        if (closed) {
+            return;
+        }
+
+        chainedHash = StateHasher.mix(chainedHash ^ hasher.getWorldHash());
+        int base = (int) (sequence & (CAPACITY - 1)) * recordLongs;
+        ring[base] = tick;
+        ring[base + 1] = chainedHash;
+        for (int i = 0; i < entityCount; i++) {
+            ring[base + 2 + i] = hasher.getEntityHash(i);
+        }
+        head.set(sequence + 1);
+        if (tail.get() == sequence) {
+            LockSupport.unpark(writer);  // The writer may be parked on an empty ring
+        }
+    }
+
+    /**
+     * Writes any ticks still in the ring, then closes the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        checkOpen();
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Writes ticks out of the ring until the stream is closed and the ring is empty.
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                long sequence = tail.get();
+                long end = head.get();
+                if (sequence == end) {
+                    if (closed && head.get() == end) {
+                        return;
+                    }
+                    LockSupport.park(this);
+                    continue;
+                }
+
+                for (; sequence < end; sequence++) {
+                    int base = (int) (sequence & (CAPACITY - 1)) * recordLongs;
+                    for (int i = 0; i < recordLongs; i++) {
+                        out.writeLong(ring[base + i]);
+                    }
+                }
+                tail.set(end);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders a game into offscreen images without a display and hands the frames
+ * to a pool of worker threads that encode them in parallel.
+ * <p>
+ * Images come from a fixed pool, so at most that many frames are in flight;
+ * the game thread waits for a free image when the encoders fall behind.
+ */
+public class HeadlessRenderer implements AutoCloseable {
+
+    private final WorldsHardestGame game;
+    private final FrameEncoder encoder;
+    private final BlockingQueue<BufferedImage> pool;
+    private final ExecutorService workers;
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private int frame;
+
+    /**
+     * Constructs a HeadlessRenderer.
+     *
+     * @param game     The game to render; normally from {@link WorldsHardestGame#createHeadless()}.
+     * @param encoder  Where the frames are written.
+     * @param threads  The number of encoder threads.
+     * @param poolSize The number of images in the pool, bounding the frames in flight.
+     */
+    public HeadlessRenderer(WorldsHardestGame game, FrameEncoder encoder, int threads, int poolSize) {
+        this.game = game;
+        this.encoder = encoder;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.add(new BufferedImage(WorldsHardestGame.width, WorldsHardestGame.height, BufferedImage.TYPE_INT_RGB));
+        }
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "frame-encoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Advances and paints the game for the specified number of frames, queueing each one for encoding.
+     *
+     * @param count The number of frames to render.
+     * @throws IOException          If an earlier frame failed to encode.
+     * @throws InterruptedException If interrupted while waiting for a free image.
+     */
+    public void render(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            rethrowFailure();
+
+            BufferedImage image = pool.take();
+            Graphics2D brush = image.createGraphics();
+            try {
+                game.paint(brush);
+            } finally {
+                brush.dispose();
+            }
+
+            int index = frame++;
+            workers.execute(() -> {
+                try {
+                    encoder.encode(index, image);
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pool.add(image);
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the number of frames rendered so far.
+     *
+     * @return The frame count.
+     */
+    public int getFrameCount() {
+        return frame;
+    }
+
+    /**
+     * Waits for every queued frame to be encoded, then closes the encoder.
+     *
+     * @throws IOException If any frame failed to encode or the encoder could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting for the last frames
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            encoder.close();
+        }
+        rethrowFailure();
+    }
+
+    private void rethrowFailure() throws IOException {
+        IOException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Renders a run to disk without a display.
+     * <p>
+     * Usage: {@code HeadlessRenderer <frames> <output> [png|rgb] [threads]}. With png the
+     * output is a directory of numbered images; with rgb it is a single raw 800x600 RGB file.
+     *
+     * @param args Command-line arguments as described above.
+     * @throws Exception If rendering or encoding fails.
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 2) {
+            System.err.println("Usage: HeadlessRenderer <frames> <output> [png|rgb] [threads]");
+            System.exit(1);
+        }
+        int frames = Integer.parseInt(args[0]);
+        String format = args.length > 2 ? args[2] : "png";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        FrameEncoder encoder = format.equals("rgb")
+                ? new FrameEncoder.RawRgb(Paths.get(args[1]), WorldsHardestGame.width, WorldsHardestGame.height)
+                : new FrameEncoder.PngSequence(new File(args[1]));
+
+        WorldsHardestGame game = WorldsHardestGame.createHeadless();
+        String hashStream = System.getProperty("game.hashStream");
+        if (hashStream != null) {
+            game.enableStateHashing(new File(hashStream));
+        }
+
+        try (HeadlessRenderer renderer = new HeadlessRenderer(game, encoder, threads, 2 * threads)) {
+            renderer.render(frames);
+        }
+    }
+}
@@ -11,4 +11,22 @@ public interface IntersectionDetectable {
      * @return {@code true} if an intersection occurs, {@code false} otherwise.
      */
     boolean intersects(Player player);
+
+    /**
+     * Checks if there is an intersection with a Player whose points have already been computed,
+     * so checking many objects against the same Player computes its points only once.
+     *
+     * @param playerPoints The Player's points, as returned by {@link Player#getPoints()}.
+     * @return {@code true} if an intersection occurs, {@code false} otherwise.
+     */
+    boolean intersects(Point[] playerPoints);
+
+    /**
+     * Checks if there was an intersection with a Player at any moment between their previous
+     * and current positions, so fast objects cannot pass through the Player between ticks.
+     *
+     * @param player The Player object to check for intersection.
+     * @return {@code true} if an intersection occurs, {@code false} otherwise.
+     */
+    boolean intersectsSwept(Player player);
 }
@@ -16,6 +16,8 @@ public class Player extends Polygon {
     // Adjust the speed to control the movement distance in each frame
     private double speed = 4.0;
 
+    private final double startX, startY, startRotation;  // Where the player was placed, for resetting
+
     /**
      * Constructs a Player with the specified initial position and rotation.
      *
@@ -23,12 +25,21 @@ public class Player extends Polygon {
      * @param initialRotation The initial rotation of the player.
      */
     public Player(Point initialPosition, double initialRotation) {
-        super(new Point[] {
-                new Point(0, 0),
-                new Point(20, 0),
-                new Point(20, 20),
-                new Point(0, 20)
-        }, initialPosition, initialRotation);
+        super(ShapeRegistry.player(), initialPosition, initialRotation);
+        this.startX = initialPosition.getX();
+        this.startY = initialPosition.getY();
+        this.startRotation = initialRotation;
+    }
+
+    /**
+     * Puts the player back where it was placed, standing still.
+     */
+    public void reset() {
+        position.setX(startX);
+        position.setY(startY);
+        rotation = startRotation;
+        movingUp = movingDown = movingLeft = movingRight = spinning = false;
+        rememberPosition();
     }
 
     /**
@@ -17,6 +17,12 @@ public class Point implements Cloneable {
   public void setX(double x){ this.x = x;}
   public void setY(double y){ this.y = y;}
   
+  // Fixed-point views of the coordinates, see 'Fixed'.
+  public long getFixedX(){ return Fixed.fromDouble(x);}
+  public long getFixedY(){ return Fixed.fromDouble(y);}
+  public static Point fromFixed(long fx, long fy) {
+    return new Point(Fixed.toDouble(fx), Fixed.toDouble(fy));
+  }
   
   public Point clone() {
 	  return new Point(x, y);
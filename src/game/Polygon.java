@@ -10,95 +10,135 @@ USAGE: You are intended to instantiate this class with a set of points that
        forever defines its shape, and then modify it by repositioning and
        rotating that shape. In defining the shape, the relative positions
        of the points you provide are used, in other words: {(0,1),(1,1),(1,0)}
-       is the same shape as {(9,10),(10,10),(10,9)}.
+       is the same shape as {(9,10),(10,10),(10,9)}. Polygons that look the
+       same should share one 'PolygonShape' from 'ShapeRegistry'.
 NOTE: You don't need to worry about the "magic math" details.
 
 */
 
 class Polygon {
-  private Point[] shape;   // An array of points.
+  private final PolygonShape shape; // The shared, immutable outline.
   public Point position;   // The offset mentioned above.
   public double rotation; // Zero degrees is due east.
   
+  // Where the polygon was before its latest move, for swept collision.
+  public double previousX, previousY, previousRotation;
+  
   public Polygon(Point[] inShape, Point inPosition, double inRotation) {
+    this(new PolygonShape(inShape), inPosition, inRotation);
+  }
+  
+  public Polygon(PolygonShape inShape, Point inPosition, double inRotation) {
     shape = inShape;
     position = inPosition;
     rotation = inRotation;
-    
-    // First, we find the shape's top-most left-most boundary, its origin.
-    Point origin = shape[0].clone();
-    for (Point p : shape) {
-      if (p.x < origin.x) origin.x = p.x;
-      if (p.y < origin.y) origin.y = p.y;
-    }
-    
-    // Then, we orient all of its points relative to the real origin.
-    for (Point p : shape) {
-      p.x -= origin.x;
-      p.y -= origin.y;
-    }
+    rememberPosition();
+  }
+  
+  // "rememberPosition" marks the current placement as the start of the next move.
+  public void rememberPosition() {
+    previousX = position.x;
+    previousY = position.y;
+    previousRotation = rotation;
   }
   
+  public PolygonShape getShape() { return shape; }
+  
+  // With the game.fixedPoint system property set at startup, polygons place and
+  // hit-test in fixed point (see 'Fixed'), which is bit-identical on every JVM.
+  // Rotations are rounded to whole degrees. Positions and speeds are still kept
+  // as doubles and converted on the way in.
+  public static final boolean FIXED_POINT = Boolean.getBoolean("game.fixedPoint");
+  
   // "getPoints" applies the rotation and offset to the shape of the polygon.
   public Point[] getPoints() {
-    Point center = findCenter();
-    Point[] points = new Point[shape.length];
-    for (int i = 0; i < shape.length; i++) {
-//    for (Point p : shape) {
-      Point p = shape[i];
-      double x = ((p.x-center.x) * Math.cos(Math.toRadians(rotation)))
-               - ((p.y-center.y) * Math.sin(Math.toRadians(rotation)))
-               + center.x/2 + position.x;
-      double y = ((p.x-center.x) * Math.sin(Math.toRadians(rotation)))
-               + ((p.y-center.y) * Math.cos(Math.toRadians(rotation)))
-               + center.y/2 + position.y;
+    int n = shape.size();
+    Point[] points = new Point[n];
+    if (FIXED_POINT) {
+      long[] xs = new long[n];
+      long[] ys = new long[n];
+      getFixedPoints(xs, ys);
+      for (int i = 0; i < n; i++) {
+        points[i] = Point.fromFixed(xs[i], ys[i]);
+      }
+      return points;
+    }
+    double centerX = shape.getCenterX(), centerY = shape.getCenterY();
+    double cos, sin;
+    if (Trig.isWholeDegree(rotation)) {
+      cos = Trig.cos((int) rotation);
+      sin = Trig.sin((int) rotation);
+    } else {
+      cos = Math.cos(Math.toRadians(rotation));
+      sin = Math.sin(Math.toRadians(rotation));
+    }
+    for (int i = 0; i < n; i++) {
+      double dx = shape.getX(i) - centerX;
+      double dy = shape.getY(i) - centerY;
+      double x = (dx * cos) - (dy * sin) + centerX/2 + position.x;
+      double y = (dx * sin) + (dy * cos) + centerY/2 + position.y;
       points[i] = new Point(x,y);
     }
     return points;
   }
   
-  // "contains" implements some magical math (i.e. the ray-casting algorithm).
-  public boolean contains(Point point) {
-    Point[] points = getPoints();
-    double crossingNumber = 0;
-    for (int i = 0, j = 1; i < shape.length; i++, j=(j+1)%shape.length) {
-      if ((((points[i].x < point.x) && (point.x <= points[j].x)) ||
-           ((points[j].x < point.x) && (point.x <= points[i].x))) &&
-          (point.y > points[i].y + (points[j].y-points[i].y)/
-           (points[j].x - points[i].x) * (point.x - points[i].x))) {
-        crossingNumber++;
-      }
+  // "getFixedPoints" is "getPoints" in fixed point, written into xs and ys.
+  public void getFixedPoints(long[] xs, long[] ys) {
+    long cx = Fixed.fromDouble(shape.getCenterX());
+    long cy = Fixed.fromDouble(shape.getCenterY());
+    long px = position.getFixedX(), py = position.getFixedY();
+    int degrees = (int) Math.round(rotation % 360);
+    long cos = Trig.cosFixed(degrees), sin = Trig.sinFixed(degrees);
+    for (int i = 0; i < shape.size(); i++) {
+      long dx = shape.getFixedX(i) - cx;
+      long dy = shape.getFixedY(i) - cy;
+      xs[i] = Fixed.mul(dx, cos) - Fixed.mul(dy, sin) + cx/2 + px;
+      ys[i] = Fixed.mul(dx, sin) + Fixed.mul(dy, cos) + cy/2 + py;
     }
-    return crossingNumber%2 == 1;
   }
   
-  public void rotate(int degrees) {rotation = (rotation+degrees)%360;}
-  
-  /*
-  The following methods are private access restricted because, as this access
-  level always implies, they are intended for use only as helpers of the
-  methods in this class that are not private. They can't be used anywhere else.
-  */
-  
-  // "findArea" implements some more magic math.
-  private double findArea() {
-    double sum = 0;
-    for (int i = 0, j = 1; i < shape.length; i++, j=(j+1)%shape.length) {
-      sum += shape[i].x*shape[j].y-shape[j].x*shape[i].y;
+  // "contains" implements some magical math (i.e. the ray-casting algorithm).
+  public boolean contains(Point point) {
+    // A point farther out than the shape reaches can't be inside, and the
+    // margin keeps rounding from ever turning a hit into a miss.
+    double reach = shape.getRadius() + 1;
+    if (Math.abs(point.x - (shape.getCenterX()/2 + position.x)) > reach ||
+        Math.abs(point.y - (shape.getCenterY()/2 + position.y)) > reach) {
+      return false;
+    }
+    if (FIXED_POINT) {
+      return containsFixed(point.getFixedX(), point.getFixedY());
     }
-    return Math.abs(sum/2);
+    // Rather than placing every point of the shape, undo the placement on the
+    // one query point and test it against the shared outline.
+    double cos, sin;
+    if (Trig.isWholeDegree(rotation)) {
+      cos = Trig.cos((int) rotation);
+      sin = Trig.sin((int) rotation);
+    } else {
+      cos = Math.cos(Math.toRadians(rotation));
+      sin = Math.sin(Math.toRadians(rotation));
+    }
+    double dx = point.x - shape.getCenterX()/2 - position.x;
+    double dy = point.y - shape.getCenterY()/2 - position.y;
+    return shape.contains((dx * cos) + (dy * sin) + shape.getCenterX(),
+                          (dy * cos) - (dx * sin) + shape.getCenterY());
   }
   
-  // "findCenter" implements another bit of math.
-  private Point findCenter() {
-    Point sum = new Point(0,0);
-    for (int i = 0, j = 1; i < shape.length; i++, j=(j+1)%shape.length) {
-      sum.x += (shape[i].x + shape[j].x)
-               * (shape[i].x * shape[j].y - shape[j].x * shape[i].y);
-      sum.y += (shape[i].y + shape[j].y)
-               * (shape[i].x * shape[j].y - shape[j].x * shape[i].y);
+  // "containsFixed" is "contains" in fixed point: the same early reject, then
+  // the query point is moved into the shape's frame and tested there.
+  public boolean containsFixed(long px, long py) {
+    long cx = shape.getFixedCenterX(), cy = shape.getFixedCenterY();
+    long dx = px - cx/2 - position.getFixedX();
+    long dy = py - cy/2 - position.getFixedY();
+    if (Math.abs(dx) > shape.getFixedReach() || Math.abs(dy) > shape.getFixedReach()) {
+      return false;
     }
-    double area = findArea();
-    return new Point(Math.abs(sum.x/(6*area)),Math.abs(sum.y/(6*area)));
+    int degrees = (int) Math.round(rotation % 360);
+    long cos = Trig.cosFixed(degrees), sin = Trig.sinFixed(degrees);
+    return shape.containsFixed(Fixed.mul(dx, cos) + Fixed.mul(dy, sin) + cx,
+                               Fixed.mul(dy, cos) - Fixed.mul(dx, sin) + cy);
   }
+  
+  public void rotate(int degrees) {rotation = (rotation+degrees)%360;}
 }
\ No newline at end of file
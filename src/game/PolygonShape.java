@@ -0,0 +1,172 @@
+package game;
+
+/*
+CLASS: PolygonShape
+DESCRIPTION: The immutable outline behind a Polygon. The points are copied and
+             moved so the top-most left-most boundary sits at the origin, and
+             the center and area are worked out once up front.
+USAGE: Shapes are meant to be shared. Get common ones from 'ShapeRegistry' so
+       identical hazards all point at the same instance, and keep position and
+       rotation on the Polygon itself.
+*/
+
+import java.util.Arrays;
+
+final class PolygonShape {
+  private final double[] xs, ys;     // The normalized points.
+  private final long[] fixedXs, fixedYs;
+  private final double centerX, centerY;
+  private final double area;
+  private final double radius;       // Farthest point from the center.
+  private final long fixedCenterX, fixedCenterY, fixedReach;
+  
+  public PolygonShape(Point[] inShape) {
+    int n = inShape.length;
+    xs = new double[n];
+    ys = new double[n];
+    
+    // First, we find the shape's top-most left-most boundary, its origin.
+    double originX = inShape[0].x, originY = inShape[0].y;
+    for (Point p : inShape) {
+      if (p.x < originX) originX = p.x;
+      if (p.y < originY) originY = p.y;
+    }
+    
+    // Then, we orient all of its points relative to the real origin.
+    for (int i = 0; i < n; i++) {
+      xs[i] = inShape[i].x - originX;
+      ys[i] = inShape[i].y - originY;
+    }
+    
+    fixedXs = new long[n];
+    fixedYs = new long[n];
+    for (int i = 0; i < n; i++) {
+      fixedXs[i] = Fixed.fromDouble(xs[i]);
+      fixedYs[i] = Fixed.fromDouble(ys[i]);
+    }
+    
+    area = findArea();
+    double sumX = 0, sumY = 0;
+    for (int i = 0, j = 1; i < n; i++, j=(j+1)%n) {
+      double cross = xs[i] * ys[j] - xs[j] * ys[i];
+      sumX += (xs[i] + xs[j]) * cross;
+      sumY += (ys[i] + ys[j]) * cross;
+    }
+    centerX = Math.abs(sumX/(6*area));
+    centerY = Math.abs(sumY/(6*area));
+    
+    double farthest = 0;
+    for (int i = 0; i < n; i++) {
+      farthest = Math.max(farthest, Math.hypot(xs[i] - centerX, ys[i] - centerY));
+    }
+    radius = farthest;
+    
+    fixedCenterX = Fixed.fromDouble(centerX);
+    fixedCenterY = Fixed.fromDouble(centerY);
+    fixedReach = Fixed.fromDouble(radius + 1);  // The radius plus a margin for rounding
+  }
+  
+  public int size() { return xs.length; }
+  public double getX(int i) { return xs[i]; }
+  public double getY(int i) { return ys[i]; }
+  public long getFixedX(int i) { return fixedXs[i]; }
+  public long getFixedY(int i) { return fixedYs[i]; }
+  public double getCenterX() { return centerX; }
+  public double getCenterY() { return centerY; }
+  public double getArea() { return area; }
+  public double getRadius() { return radius; }
+  public long getFixedCenterX() { return fixedCenterX; }
+  public long getFixedCenterY() { return fixedCenterY; }
+  public long getFixedReach() { return fixedReach; }
+  
+  // "transform" places the shape the same way Polygon.getPoints does, but
+  // writes rounded-down screen coordinates into xs and ys so drawing many
+  // copies of one shape needs no Polygon or Point objects.
+  public void transform(double x, double y, double rotation, int[] xs, int[] ys) {
+    double cos, sin;
+    if (Trig.isWholeDegree(rotation)) {
+      cos = Trig.cos((int) rotation);
+      sin = Trig.sin((int) rotation);
+    } else {
+      cos = Math.cos(Math.toRadians(rotation));
+      sin = Math.sin(Math.toRadians(rotation));
+    }
+    for (int i = 0; i < this.xs.length; i++) {
+      double dx = this.xs[i] - centerX;
+      double dy = this.ys[i] - centerY;
+      xs[i] = (int) ((dx * cos) - (dy * sin) + centerX/2 + x);
+      ys[i] = (int) ((dx * sin) + (dy * cos) + centerY/2 + y);
+    }
+  }
+  
+  // The same placement as above, without rounding.
+  public void transform(double x, double y, double rotation, double[] xs, double[] ys) {
+    double cos, sin;
+    if (Trig.isWholeDegree(rotation)) {
+      cos = Trig.cos((int) rotation);
+      sin = Trig.sin((int) rotation);
+    } else {
+      cos = Math.cos(Math.toRadians(rotation));
+      sin = Math.sin(Math.toRadians(rotation));
+    }
+    for (int i = 0; i < this.xs.length; i++) {
+      double dx = this.xs[i] - centerX;
+      double dy = this.ys[i] - centerY;
+      xs[i] = (dx * cos) - (dy * sin) + centerX/2 + x;
+      ys[i] = (dx * sin) + (dy * cos) + centerY/2 + y;
+    }
+  }
+  
+  // "contains" is the ray cast from Polygon.contains, for a point already
+  // moved into the shape's own unrotated frame.
+  public boolean contains(double x, double y) {
+    double crossingNumber = 0;
+    for (int i = 0, j = 1; i < xs.length; i++, j=(j+1)%xs.length) {
+      if ((((xs[i] < x) && (x <= xs[j])) ||
+           ((xs[j] < x) && (x <= xs[i]))) &&
+          (y > ys[i] + (ys[j]-ys[i])/
+           (xs[j] - xs[i]) * (x - xs[i]))) {
+        crossingNumber++;
+      }
+    }
+    return crossingNumber%2 == 1;
+  }
+  
+  // "containsFixed" is the same ray cast in fixed point. The division is
+  // replaced by a cross-multiplication, flipped when the edge runs leftwards.
+  public boolean containsFixed(long x, long y) {
+    boolean inside = false;
+    for (int i = 0, j = 1; i < fixedXs.length; i++, j=(j+1)%fixedXs.length) {
+      if (((fixedXs[i] < x) && (x <= fixedXs[j])) || ((fixedXs[j] < x) && (x <= fixedXs[i]))) {
+        long dx = fixedXs[j] - fixedXs[i];
+        long lhs = (y - fixedYs[i]) * dx;
+        long rhs = (fixedYs[j] - fixedYs[i]) * (x - fixedXs[i]);
+        if (dx > 0 ? lhs > rhs : lhs < rhs) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside;
+  }
+  
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof PolygonShape)) return false;
+    PolygonShape other = (PolygonShape) o;
+    return Arrays.equals(xs, other.xs) && Arrays.equals(ys, other.ys);
+  }
+  
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(xs) + Arrays.hashCode(ys);
+  }
+  
+  // "findArea" implements some more magic math.
+  private double findArea() {
+    double sum = 0;
+    for (int i = 0, j = 1; i < xs.length; i++, j=(j+1)%xs.length) {
+      sum += xs[i]*ys[j]-xs[j]*ys[i];
+    }
+    return Math.abs(sum/2);
+  }
+}
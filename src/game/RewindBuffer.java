@@ -0,0 +1,146 @@
+package game;
+
+/**
+ * A fixed-size ring of recent world states for practice-mode rewind.
+ * <p>
+ * Every array is allocated up front and each state is stored as primitives, so recording a
+ * tick never allocates and restoring one is a straight copy over the entities. Once the ring
+ * is full the oldest state is overwritten.
+ */
+public class RewindBuffer {
+
+    private final int capacity;
+    private final int enemyCount;
+    private final int spinnerCount;
+
+    private final long[] ticks;
+    private final int[] scores;
+    private final double[] playerX;
+    private final double[] playerY;
+    private final double[] playerRotation;
+    private final double[] enemyY;           // capacity x enemyCount
+    private final boolean[] enemyMovingUp;   // capacity x enemyCount
+    private final double[] spinnerRotation;  // capacity x spinnerCount
+
+    private int head;  // The slot the next state is written to
+    private int size;
+
+    /**
+     * Constructs a RewindBuffer.
+     *
+     * @param capacity     The number of ticks kept.
+     * @param enemyCount   The number of enemies in the world.
+     * @param spinnerCount The number of spinning rectangles in the world.
+     */
+    public RewindBuffer(int capacity, int enemyCount, int spinnerCount) {
+        this.capacity = capacity;
+        this.enemyCount = enemyCount;
+        this.spinnerCount = spinnerCount;
+        this.ticks = new long[capacity];
+        this.scores = new int[capacity];
+        this.playerX = new double[capacity];
+        this.playerY = new double[capacity];
+        this.playerRotation = new double[capacity];
+        this.enemyY = new double[capacity * enemyCount];
+        this.enemyMovingUp = new boolean[capacity * enemyCount];
+        this.spinnerRotation = new double[capacity * spinnerCount];
+    }
+
+    /**
+     * Stores the current state of the game as the newest entry.
+     *
+     * @param game The game to record.
+     */
+    public void record(WorldsHardestGame game) {
+        int slot = head;
+        ticks[slot] = game.ticks;
+        scores[slot] = game.getPlayerScore();
+        playerX[slot] = game.player.position.x;
+        playerY[slot] = game.player.position.y;
+        playerRotation[slot] = game.player.rotation;
+
+        int base = slot * enemyCount;
+        for (int i = 0; i < enemyCount; i++) {
+            Enemy enemy = game.enemies.get(i);
+            enemyY[base + i] = enemy.position.y;
+            enemyMovingUp[base + i] = enemy.isMovingUp();
+        }
+
+        base = slot * spinnerCount;
+        for (int i = 0; i < spinnerCount; i++) {
+            spinnerRotation[base + i] = game.spinningRectangles.get(i).rotation;
+        }
+
+        head = (head + 1) % capacity;
+        if (size < capacity) {
+            size++;
+        }
+    }
+
+    /**
+     * Steps back through the recorded states, dropping the newer ones, and restores the game
+     * to the state that is then newest. The oldest state is never dropped.
+     *
+     * @param game  The game to restore.
+     * @param steps The number of ticks to step back.
+     * @return False if there was nothing older to step back to.
+     */
+    public boolean rewind(WorldsHardestGame game, int steps) {
+        if (size <= 1) {
+            return false;
+        }
+        steps = Math.min(steps, size - 1);
+        size -= steps;
+        head = Math.floorMod(head - steps, capacity);
+        restore(game, Math.floorMod(head - 1, capacity));
+        return true;
+    }
+
+    /**
+     * Gets the number of ticks currently stored.
+     *
+     * @return The number of stored states.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every stored state.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Copies one stored state back into the game.
+     */
+    private void restore(WorldsHardestGame game, int slot) {
+        game.ticks = ticks[slot];
+        game.setPlayerScore(scores[slot]);
+        game.player.position.x = playerX[slot];
+        game.player.position.y = playerY[slot];
+        game.player.rotation = playerRotation[slot];
+        game.player.rememberPosition();
+
+        int base = slot * enemyCount;
+        for (int i = 0; i < enemyCount; i++) {
+            Enemy enemy = game.enemies.get(i);
+            enemy.position.y = enemyY[base + i];
+            enemy.setMovingUp(enemyMovingUp[base + i]);
+            enemy.rememberPosition();
+        }
+
+        base = slot * spinnerCount;
+        for (int i = 0; i < spinnerCount; i++) {
+            SpinningRectangle spinningRectangle = game.spinningRectangles.get(i);
+            spinningRectangle.rotation = spinnerRotation[base + i];
+            spinningRectangle.rememberPosition();
+        }
+
+        if (game.stateHasher != null) {
+            game.stateHasher.rehash(game);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package game;
+
+/**
+ * A completed run of a level, as recorded by the {@link ScoreStore}.
+ */
+public class RunResult {
+
+    private final int level;
+    private final int score;
+    private final long ticks;
+    private final long elapsedMillis;
+    private final byte[] trace;
+
+    /**
+     * Constructs a RunResult.
+     *
+     * @param level         The level that was completed.
+     * @param score         The final score.
+     * @param ticks         The number of simulation ticks the run took.
+     * @param elapsedMillis The wall-clock duration of the run in milliseconds.
+     * @param trace         An optional input trace, or null.
+     */
+    public RunResult(int level, int score, long ticks, long elapsedMillis, byte[] trace) {
+        this.level = level;
+        this.score = score;
+        this.ticks = ticks;
+        this.elapsedMillis = elapsedMillis;
+        this.trace = trace;
+    }
+
+    /**
+     * Gets the level that was completed.
+     *
+     * @return The level number.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Gets the final score.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of simulation ticks the run took.
+     *
+     * @return The tick count.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the wall-clock duration of the run.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Gets the input trace recorded with the run.
+     *
+     * @return The trace bytes, or null if none was recorded or it was not loaded.
+     */
+    public byte[] getTrace() {
+        return trace;
+    }
+
+    @Override
+    public String toString() {
+        return "Level " + level + ": score " + score + " in " + ticks + " ticks (" + elapsedMillis / 1000.0 + " seconds)";
+    }
+}
@@ -0,0 +1,394 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Persists completed runs and keeps a per-level leaderboard.
+ * <p>
+ * Runs are appended to {@code runs.log} as length-prefixed, CRC-checked records. Each level
+ * also has a {@code leaderboard-N.idx} file holding its top runs in sorted order, which is
+ * memory-mapped so queries never touch the log. A torn record at the end of the log is cut
+ * off when the store is opened, and a damaged record in the middle is skipped so the runs after
+ * it are kept. Any index that does not match the log is rebuilt from it.
+ * <p>
+ * {@link #record(RunResult)} only queues the run; a background thread writes queued runs in
+ * batches, so the game thread never waits on the disk.
+ */
+public class ScoreStore implements AutoCloseable {
+
+    /** The number of runs kept per level when no capacity is given. */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final String LOG_NAME = "runs.log";
+    private static final int RECORD_HEADER = 8;       // payload length, CRC32 of payload
+    private static final int PAYLOAD_FIXED = 28;      // level, score, ticks, elapsed, trace length
+    private static final int MAX_PAYLOAD = 64 << 20;  // anything larger is treated as corruption
+    private static final int INDEX_MAGIC = 0x57484749;
+    private static final int INDEX_HEADER = 16;       // magic, count, log length covered
+    private static final int INDEX_ENTRY = 28;        // score, ticks, elapsed, log offset
+    private static final int QUEUE_SIZE = 1024;
+
+    private final File directory;
+    private final int capacity;
+    private final FileChannel log;
+    private final Map<Integer, MappedByteBuffer> indexes = new HashMap<>();
+    private final BlockingQueue<RunResult> pending = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final Thread writer;
+    private volatile boolean closed;
+    private long logLength;
+    private boolean skippedRecords;  // Set by scanLog when a damaged record was skipped
+    private int dropped;
+
+    /**
+     * Opens the store in the specified directory with the default leaderboard size.
+     *
+     * @param directory The directory holding the log and index files; created if missing.
+     * @throws IOException If the files cannot be opened.
+     */
+    public ScoreStore(File directory) throws IOException {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens the store in the specified directory.
+     *
+     * @param directory The directory holding the log and index files; created if missing.
+     * @param capacity  The number of top runs kept in each level's index.
+     * @throws IOException If the files cannot be opened.
+     */
+    public ScoreStore(File directory, int capacity) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.capacity = capacity;
+        this.log = FileChannel.open(new File(directory, LOG_NAME).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Find the valid records and drop a record torn off the end
+        List<long[]> records = scanLog();
+        log.truncate(logLength);
+
+        // Open every index we know about and rebuild the ones that are out of date, or all of
+        // them if a damaged record was skipped, since they may still list it
+        List<Integer> levels = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("leaderboard-") && name.endsWith(".idx"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    levels.add(Integer.parseInt(name.substring("leaderboard-".length(), name.length() - 4)));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        for (long[] record : records) {
+            if (!levels.contains((int) record[0])) {
+                levels.add((int) record[0]);
+            }
+        }
+        for (int level : levels) {
+            MappedByteBuffer index = openIndex(level);
+            if (skippedRecords || index.getInt(0) != INDEX_MAGIC || index.getInt(4) > capacity || index.getLong(8) != logLength) {
+                index.putInt(0, INDEX_MAGIC);
+                index.putInt(4, 0);
+                for (long[] record : records) {
+                    if (record[0] == level) {
+                        insert(index, (int) record[1], record[2], record[3], record[4]);
+                    }
+                }
+                index.putLong(8, logLength);
+            }
+        }
+
+        writer = new Thread(this::writeLoop, "score-store");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues a completed run to be written. Never blocks; if the queue is full the run is
+     * dropped and counted in {@link #getDroppedCount()}.
+     *
+     * @param run The run to record.
+     */
+    public void record(RunResult run) {
+        if (closed || !pending.offer(run)) {
+            synchronized (this) {
+                dropped++;
+            }
+        }
+    }
+
+    /**
+     * Gets the best runs recorded for a level, highest score first and fewest ticks breaking ties.
+     * The returned runs do not carry their traces.
+     *
+     * @param level The level to query.
+     * @param n     The maximum number of runs to return.
+     * @return The top runs, possibly fewer than n.
+     */
+    public synchronized List<RunResult> top(int level, int n) {
+        List<RunResult> runs = new ArrayList<>();
+        MappedByteBuffer index = indexes.get(level);
+        if (index == null) {
+            return runs;
+        }
+        int count = Math.min(n, index.getInt(4));
+        for (int i = 0; i < count; i++) {
+            int at = INDEX_HEADER + i * INDEX_ENTRY;
+            runs.add(new RunResult(level, index.getInt(at), index.getLong(at + 4), index.getLong(at + 12), null));
+        }
+        return runs;
+    }
+
+    /**
+     * Gets the number of runs that could not be queued.
+     *
+     * @return The dropped run count.
+     */
+    public synchronized int getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Writes any queued runs, then closes the store.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            for (MappedByteBuffer index : indexes.values()) {
+                index.force();
+            }
+        }
+        log.close();
+    }
+
+    /**
+     * Takes runs off the queue in batches until the store is closed and the queue is empty.
+     */
+    private void writeLoop() {
+        List<RunResult> batch = new ArrayList<>();
+        while (!closed || !pending.isEmpty()) {
+            RunResult first;
+            try {
+                first = pending.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            pending.drainTo(batch);
+            try {
+                append(batch);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Appends a batch of runs to the log with a single write, then adds them to the indexes.
+     *
+     * @param batch The runs to append.
+     * @throws IOException If the log cannot be written.
+     */
+    private void append(List<RunResult> batch) throws IOException {
+        int size = 0;
+        for (RunResult run : batch) {
+            size += RECORD_HEADER + PAYLOAD_FIXED + traceLength(run);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        long[] offsets = new long[batch.size()];
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < batch.size(); i++) {
+            RunResult run = batch.get(i);
+            offsets[i] = logLength + buffer.position();
+            int length = PAYLOAD_FIXED + traceLength(run);
+            int start = buffer.position() + RECORD_HEADER;
+            buffer.putInt(length);
+            buffer.putInt(0);  // CRC, filled in below
+            buffer.putInt(run.getLevel());
+            buffer.putInt(run.getScore());
+            buffer.putLong(run.getTicks());
+            buffer.putLong(run.getElapsedMillis());
+            buffer.putInt(traceLength(run));
+            if (run.getTrace() != null) {
+                buffer.put(run.getTrace());
+            }
+            crc.reset();
+            crc.update(buffer.array(), start, length);
+            buffer.putInt(start - 4, (int) crc.getValue());
+        }
+        buffer.flip();
+
+        long position = logLength;
+        while (buffer.hasRemaining()) {
+            position += log.write(buffer, position);
+        }
+        log.force(false);
+
+        synchronized (this) {
+            logLength = position;
+            for (int i = 0; i < batch.size(); i++) {
+                RunResult run = batch.get(i);
+                insert(openIndex(run.getLevel()), run.getScore(), run.getTicks(), run.getElapsedMillis(), offsets[i]);
+            }
+            for (MappedByteBuffer index : indexes.values()) {
+                index.putLong(8, logLength);
+            }
+        }
+    }
+
+    /**
+     * Reads the log from the start. A record cut short by the end of the file, or failing its
+     * CRC as the last record, is a torn write and ends the scan. A record failing its CRC with
+     * more records after it is skipped. Sets {@link #logLength} to the end of the last whole
+     * record.
+     *
+     * @return One {level, score, ticks, elapsed, offset} entry per good record.
+     * @throws IOException If the log cannot be read, or a record's length is impossible, since
+     *                     then the records after it cannot be found.
+     */
+    private List<long[]> scanLog() throws IOException {
+        List<long[]> records = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+        long position = 0;
+        long size = log.size();
+        CRC32 crc = new CRC32();
+        while (true) {
+            header.clear();
+            if (readFully(header, position) < RECORD_HEADER) {
+                break;
+            }
+            int length = header.getInt(0);
+            if (length < PAYLOAD_FIXED || length > MAX_PAYLOAD) {
+                throw new IOException("Corrupt record length " + length + " at offset " + position + " in " + LOG_NAME);
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (readFully(payload, position + RECORD_HEADER) < length) {
+                break;
+            }
+            crc.reset();
+            crc.update(payload.array(), 0, length);
+            long next = position + RECORD_HEADER + length;
+            if ((int) crc.getValue() != header.getInt(4)) {
+                if (next == size) {
+                    break;
+                }
+                System.err.println("Skipping corrupt run at offset " + position + " in " + LOG_NAME);
+                skippedRecords = true;
+                position = next;
+                continue;
+            }
+            records.add(new long[] {payload.getInt(0), payload.getInt(4), payload.getLong(8), payload.getLong(16), position});
+            position = next;
+        }
+        logLength = position;
+        return records;
+    }
+
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = log.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the mapped index for a level, mapping (and creating) its file on first use.
+     *
+     * @param level The level.
+     * @return The mapped index.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private MappedByteBuffer openIndex(int level) throws IOException {
+        MappedByteBuffer index = indexes.get(level);
+        if (index == null) {
+            File file = new File(directory, "leaderboard-" + level + ".idx");
+            try (FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                index = channel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER + (long) capacity * INDEX_ENTRY);
+            }
+            if (index.getInt(0) != INDEX_MAGIC) {
+                index.putInt(0, INDEX_MAGIC);
+                index.putInt(4, 0);
+                index.putLong(8, -1);
+            }
+            indexes.put(level, index);
+        }
+        return index;
+    }
+
+    /**
+     * Inserts a run into a sorted index, dropping the last entry if the index is full.
+     */
+    private void insert(MappedByteBuffer index, int score, long ticks, long elapsed, long offset) {
+        int count = index.getInt(4);
+
+        // Binary search for the first entry that ranks below the new run
+        int low = 0, high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int at = INDEX_HEADER + mid * INDEX_ENTRY;
+            int otherScore = index.getInt(at);
+            if (otherScore > score || (otherScore == score && index.getLong(at + 4) <= ticks)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low >= capacity) {
+            return;
+        }
+
+        for (int i = Math.min(count, capacity - 1); i > low; i--) {
+            int from = INDEX_HEADER + (i - 1) * INDEX_ENTRY;
+            int to = from + INDEX_ENTRY;
+            index.putInt(to, index.getInt(from));
+            index.putLong(to + 4, index.getLong(from + 4));
+            index.putLong(to + 12, index.getLong(from + 12));
+            index.putLong(to + 20, index.getLong(from + 20));
+        }
+
+        int at = INDEX_HEADER + low * INDEX_ENTRY;
+        index.putInt(at, score);
+        index.putLong(at + 4, ticks);
+        index.putLong(at + 12, elapsed);
+        index.putLong(at + 20, offset);
+        index.putInt(4, Math.min(count + 1, capacity));
+    }
+
+    private static int traceLength(RunResult run) {
+        return run.getTrace() == null ? 0 : run.getTrace().length;
+    }
+}
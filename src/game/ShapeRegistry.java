@@ -0,0 +1,77 @@
+package game;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns immutable {@link PolygonShape} instances so identical hazards share
+ * one outline instead of each carrying their own array of points.
+ */
+final class ShapeRegistry {
+
+    private static final ConcurrentHashMap<PolygonShape, PolygonShape> SHAPES = new ConcurrentHashMap<>();
+
+    private static final PolygonShape BAR = intern(new PolygonShape(new Point[] {
+            new Point(0, 0),
+            new Point(50, 0),
+            new Point(50, 15),
+            new Point(0, 15)
+    }));
+
+    private static final PolygonShape PLAYER = intern(new PolygonShape(new Point[] {
+            new Point(0, 0),
+            new Point(20, 0),
+            new Point(20, 20),
+            new Point(0, 20)
+    }));
+
+    private ShapeRegistry() {
+    }
+
+    /**
+     * Returns the shared instance equal to the given shape, registering it if it is new.
+     *
+     * @param shape The shape to intern.
+     * @return The canonical instance of the shape.
+     */
+    static PolygonShape intern(PolygonShape shape) {
+        PolygonShape existing = SHAPES.putIfAbsent(shape, shape);
+        return existing != null ? existing : shape;
+    }
+
+    /**
+     * Gets the shared circle outline for the given radius.
+     *
+     * @param radius The radius of the circle.
+     * @param sides  The number of sides to approximate the circle.
+     * @return The interned circle shape.
+     */
+    static PolygonShape circle(double radius, int sides) {
+        Point[] points = new Point[sides];
+        double angleIncrement = 360.0 / sides;
+
+        for (int i = 0; i < sides; i++) {
+            double angle = Math.toRadians(i * angleIncrement);
+            points[i] = new Point(radius * Math.cos(angle), radius * Math.sin(angle));
+        }
+
+        return intern(new PolygonShape(points));
+    }
+
+    /**
+     * Gets the shared 50x15 outline used by spinning rectangles.
+     *
+     * @return The bar shape.
+     */
+    static PolygonShape bar() {
+        return BAR;
+    }
+
+    /**
+     * Gets the shared 20x20 outline used by the player.
+     *
+     * @return The player shape.
+     */
+    static PolygonShape player() {
+        return PLAYER;
+    }
+}
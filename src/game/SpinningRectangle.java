@@ -8,6 +8,7 @@ import java.awt.*;
  */
 public class SpinningRectangle extends Polygon implements IntersectionDetectable {
     protected int rotationSpeed = 2;
+    private final double startRotation;  // The rotation it was placed with, for resetting
 
     /**
      * Constructs a SpinningRectangle with the specified initial position and rotation.
@@ -16,18 +17,23 @@ public class SpinningRectangle extends Polygon implements IntersectionDetectable
      * @param initialRotation The initial rotation angle in degrees.
      */
     public SpinningRectangle(Point initialPosition, double initialRotation) {
-        super(new Point[] {
-                new Point(0, 0),
-                new Point(50, 0),
-                new Point(50, 15),
-                new Point(0, 15)
-        }, initialPosition, initialRotation);
+        super(ShapeRegistry.bar(), initialPosition, initialRotation);
+        this.startRotation = initialRotation;
+    }
+
+    /**
+     * Turns the spinning rectangle back to the rotation it was placed with.
+     */
+    public void reset() {
+        rotation = startRotation;
+        rememberPosition();
     }
 
     /**
      * Moves the spinning rectangle by adjusting its rotation based on the rotation speed.
      */
     public void move() {
+        rememberPosition();
         rotation += rotationSpeed;
     }
 
@@ -38,8 +44,29 @@ public class SpinningRectangle extends Polygon implements IntersectionDetectable
      * @return True if the spinning rectangle intersects with the player, false otherwise.
      */
     public boolean intersects(Player player) {
+        return intersects(player.getPoints());
+    }
+
+    /**
+     * Checks whether the player touched this object at any moment between both objects'
+     * previous and current positions, using {@link SweptCollision}.
+     *
+     * @param player The player to check for intersection.
+     * @return True if the swept shapes intersect, false otherwise.
+     */
+    public boolean intersectsSwept(Player player) {
+        return SweptCollision.intersects(this, player);
+    }
+
+    /**
+     * Checks for intersection with a player whose points have already been computed.
+     *
+     * @param playerPoints The player's points, as returned by {@link Player#getPoints()}.
+     * @return True if the spinning rectangle intersects with the player, false otherwise.
+     */
+    public boolean intersects(Point[] playerPoints) {
         // Check if any point of the player is inside the spinning rectangle
-        for (Point playerPoint : player.getPoints()) {
+        for (Point playerPoint : playerPoints) {
             if (this.contains(playerPoint)) {
                 return true;
             }
@@ -0,0 +1,146 @@
+package game;
+
+/**
+ * Keeps a rolling 64-bit hash of the simulation state for spotting desyncs between runs.
+ * <p>
+ * Every entity has its own hash, and the world hash is all of them XORed together. When an
+ * entity changes only its own hash is recomputed, and the world hash is patched by XORing out
+ * the old value and XORing in the new one, so nothing is ever rehashed from scratch during
+ * play. Entity 0 is the player, entity 1 is the score and the hazards follow in
+ * {@link WorldsHardestGame#hazards} order.
+ */
+public class StateHasher {
+
+    /** The entity number of the player. */
+    public static final int PLAYER = 0;
+    /** The entity number of the score. */
+    public static final int SCORE = 1;
+    /** The entity number of the first hazard. */
+    public static final int FIRST_HAZARD = 2;
+
+    private final long[] entityHashes;
+    private long worldHash;
+
+    /**
+     * Constructs a StateHasher and hashes the game's current state.
+     *
+     * @param game The game to hash.
+     */
+    public StateHasher(WorldsHardestGame game) {
+        entityHashes = new long[FIRST_HAZARD + game.hazards.size()];
+        rehash(game);
+    }
+
+    /**
+     * Hashes every entity again, for when the whole state was replaced, such as a rewind.
+     *
+     * @param game The game to hash.
+     */
+    public void rehash(WorldsHardestGame game) {
+        playerChanged(game.player);
+        scoreChanged(game.getPlayerScore());
+        for (int i = 0; i < game.hazards.size(); i++) {
+            hazardChanged(i, game.hazards.get(i));
+        }
+    }
+
+    /**
+     * Updates the hash after the player moved, turned or respawned.
+     *
+     * @param player The player.
+     */
+    public void playerChanged(Player player) {
+        set(PLAYER, hashPolygon(PLAYER, player));
+    }
+
+    /**
+     * Updates the hash after the score changed.
+     *
+     * @param score The new score.
+     */
+    public void scoreChanged(int score) {
+        set(SCORE, mix(mix(SCORE) ^ score));
+    }
+
+    /**
+     * Updates the hash after a hazard moved.
+     *
+     * @param index  The hazard's index in the game's hazard list.
+     * @param hazard The hazard.
+     */
+    public void hazardChanged(int index, IntersectionDetectable hazard) {
+        int entity = FIRST_HAZARD + index;
+        long hash = hashPolygon(entity, (Polygon) hazard);
+        if (hazard instanceof Enemy) {
+            hash = mix(hash ^ (((Enemy) hazard).isMovingUp() ? 1 : 2));
+        }
+        set(entity, hash);
+    }
+
+    /**
+     * Gets the hash of the whole world.
+     *
+     * @return The world hash.
+     */
+    public long getWorldHash() {
+        return worldHash;
+    }
+
+    /**
+     * Gets the hash of one entity.
+     *
+     * @param entity The entity number.
+     * @return The entity's hash.
+     */
+    public long getEntityHash(int entity) {
+        return entityHashes[entity];
+    }
+
+    /**
+     * Gets the number of entities hashed.
+     *
+     * @return The entity count.
+     */
+    public int getEntityCount() {
+        return entityHashes.length;
+    }
+
+    /**
+     * Names an entity number for reports.
+     *
+     * @param entity The entity number.
+     * @return A readable name such as "player" or "hazard 3".
+     */
+    public static String describe(int entity) {
+        switch (entity) {
+            case PLAYER:
+                return "player";
+            case SCORE:
+                return "score";
+            default:
+                return "hazard " + (entity - FIRST_HAZARD);
+        }
+    }
+
+    private void set(int entity, long hash) {
+        worldHash ^= entityHashes[entity] ^ hash;
+        entityHashes[entity] = hash;
+    }
+
+    private static long hashPolygon(int entity, Polygon polygon) {
+        long hash = mix(entity);
+        hash = mix(hash ^ Double.doubleToLongBits(polygon.position.x));
+        hash = mix(hash ^ Double.doubleToLongBits(polygon.position.y));
+        return mix(hash ^ Double.doubleToLongBits(polygon.rotation));
+    }
+
+    /**
+     * The SplitMix64 finalizer: cheap, and every input bit affects every output bit.
+     */
+    static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
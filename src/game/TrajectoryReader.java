@@ -0,0 +1,224 @@
+package game;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Streams a trajectory written by {@link TrajectoryWriter} back from disk one tick at a time,
+ * so only a small buffer of each run is ever in memory.
+ * <p>
+ * While reading forward the reader notes a checkpoint every
+ * {@link TrajectoryWriter#CHECKPOINT_INTERVAL} ticks, so {@link #seek(int)} back to an earlier
+ * tick resumes from the nearest one instead of decoding the run from the start. A short step
+ * back usually lands inside the buffer and reads nothing from disk.
+ */
+public class TrajectoryReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final int HEADER_BYTES = 4;
+
+    private final File file;
+    private final RandomAccessFile in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private long bufferStart;  // The file offset of buffer[0]
+    private int bufferLength;
+    private int bufferPosition;
+    private int tick;
+    private long x, y, rotation;
+    private boolean finished;
+
+    // Checkpoint c is the file offset and state at tick c * CHECKPOINT_INTERVAL
+    private long[] checkpointOffsets = new long[16];
+    private long[] checkpointStates = new long[3 * 16];  // x, y, rotation per checkpoint
+    private int checkpoints;
+
+    /**
+     * Opens a trajectory file.
+     *
+     * @param file The file to read.
+     * @throws IOException If the file cannot be opened or is not a trajectory.
+     */
+    public TrajectoryReader(File file) throws IOException {
+        this.file = file;
+        this.in = new RandomAccessFile(file, "r");
+        int magic = 0;
+        for (int i = 0; i < HEADER_BYTES; i++) {
+            int b = read();
+            if (b < 0) {
+                in.close();
+                throw new IOException(file + " is not a trajectory");
+            }
+            magic = (magic << 8) | b;
+        }
+        if (magic != TrajectoryWriter.MAGIC) {
+            in.close();
+            throw new IOException(file + " is not a trajectory");
+        }
+        addCheckpoint();
+    }
+
+    /**
+     * Reads the next tick.
+     *
+     * @return False once the end of the trajectory has been reached; the last state is kept.
+     * @throws IOException If the file cannot be read.
+     */
+    public boolean next() throws IOException {
+        if (finished) {
+            return false;
+        }
+        int first = read();
+        if (first < 0) {
+            finished = true;
+            return false;
+        }
+        x += readVarLong(first);
+        y += readVarLong(read());
+        rotation += readVarLong(read());
+        tick++;
+        if (tick % TrajectoryWriter.CHECKPOINT_INTERVAL == 0 && tick / TrajectoryWriter.CHECKPOINT_INTERVAL == checkpoints) {
+            addCheckpoint();
+        }
+        return true;
+    }
+
+    /**
+     * Moves to the specified tick, or to the end if the trajectory is shorter. Going back
+     * resumes from the nearest checkpoint at or before the tick.
+     *
+     * @param target The tick to move to.
+     * @throws IOException If the file cannot be read.
+     */
+    public void seek(int target) throws IOException {
+        if (target < tick) {
+            int checkpoint = Math.min(target / TrajectoryWriter.CHECKPOINT_INTERVAL, checkpoints - 1);
+            position(checkpointOffsets[checkpoint]);
+            x = checkpointStates[3 * checkpoint];
+            y = checkpointStates[3 * checkpoint + 1];
+            rotation = checkpointStates[3 * checkpoint + 2];
+            tick = checkpoint * TrajectoryWriter.CHECKPOINT_INTERVAL;
+            finished = false;
+        }
+        while (tick < target && next()) {
+            // Read forward to the target
+        }
+    }
+
+    /**
+     * Goes back to the start of the trajectory.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    public void rewind() throws IOException {
+        seek(0);
+    }
+
+    /**
+     * Gets the number of ticks read so far.
+     *
+     * @return The tick count.
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Checks whether every tick has been read.
+     *
+     * @return True at the end of the trajectory.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the x-coordinate at the current tick.
+     *
+     * @return The x-coordinate.
+     */
+    public double getX() {
+        return Fixed.toDouble(x);
+    }
+
+    /**
+     * Gets the y-coordinate at the current tick.
+     *
+     * @return The y-coordinate.
+     */
+    public double getY() {
+        return Fixed.toDouble(y);
+    }
+
+    /**
+     * Gets the rotation at the current tick.
+     *
+     * @return The rotation in degrees.
+     */
+    public double getRotation() {
+        return Fixed.toDouble(rotation);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void addCheckpoint() {
+        if (checkpoints == checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoints * 2);
+            checkpointStates = Arrays.copyOf(checkpointStates, 3 * checkpoints * 2);
+        }
+        checkpointOffsets[checkpoints] = bufferStart + bufferPosition;
+        checkpointStates[3 * checkpoints] = x;
+        checkpointStates[3 * checkpoints + 1] = y;
+        checkpointStates[3 * checkpoints + 2] = rotation;
+        checkpoints++;
+    }
+
+    /**
+     * Moves the read position to a file offset, reusing the buffer if it already holds it.
+     */
+    private void position(long offset) {
+        if (offset >= bufferStart && offset <= bufferStart + bufferLength) {
+            bufferPosition = (int) (offset - bufferStart);
+        } else {
+            bufferStart = offset;
+            bufferLength = 0;
+            bufferPosition = 0;
+        }
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferStart += bufferLength;
+            in.seek(bufferStart);
+            int read = in.read(buffer, 0, BUFFER_SIZE);
+            bufferLength = Math.max(read, 0);
+            bufferPosition = 0;
+            if (read <= 0) {
+                return -1;
+            }
+        }
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    private long readVarLong(int b) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        while (true) {
+            if (b < 0) {
+                throw new EOFException("Truncated trajectory " + file);
+            }
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+            b = read();
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
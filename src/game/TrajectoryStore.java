@@ -0,0 +1,97 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keeps the trajectories of completed runs in a directory, one file per run, and picks the
+ * best ones to race against. The score and tick count are part of each file name, so ranking
+ * the runs never opens the files. Only the best runs up to the store's capacity are kept; the
+ * rest are deleted as better runs are saved.
+ */
+public class TrajectoryStore {
+
+    private static final String SUFFIX = ".traj";
+
+    private final File directory;
+    private final int capacity;
+
+    /**
+     * Constructs a TrajectoryStore for the specified directory.
+     *
+     * @param directory The directory holding the trajectory files; created if missing.
+     * @param capacity  The number of best runs kept.
+     * @throws IOException If the directory cannot be created.
+     */
+    public TrajectoryStore(File directory, int capacity) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Saves the trajectory of a completed run, then deletes the runs that no longer rank within
+     * the store's capacity. The new run itself is deleted if it does not rank.
+     *
+     * @param trajectory The recorded trajectory.
+     * @param score      The final score of the run.
+     * @param ticks      The number of ticks the run took.
+     * @return The file written.
+     * @throws IOException If the file cannot be written.
+     */
+    public File save(TrajectoryWriter trajectory, int score, long ticks) throws IOException {
+        File file = new File(directory, "run_" + score + "_" + ticks + "_" + System.currentTimeMillis() + SUFFIX);
+        trajectory.writeTo(file);
+
+        List<File> ranked = ranked();
+        for (int i = capacity; i < ranked.size(); i++) {
+            if (!ranked.get(i).delete()) {
+                System.err.println("Cannot delete " + ranked.get(i));
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Gets the files of the best runs, highest score first and fewest ticks breaking ties.
+     *
+     * @param n The maximum number of runs.
+     * @return Up to n trajectory files, best first.
+     */
+    public List<File> best(int n) {
+        List<File> ranked = ranked();
+        return new ArrayList<>(ranked.subList(0, Math.min(n, ranked.size())));
+    }
+
+    /**
+     * Gets every trajectory file in the directory, best first.
+     */
+    private List<File> ranked() {
+        List<long[]> ranked = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        File[] found = directory.listFiles((dir, name) -> name.startsWith("run_") && name.endsWith(SUFFIX));
+        if (found != null) {
+            for (File file : found) {
+                String[] parts = file.getName().substring(4, file.getName().length() - SUFFIX.length()).split("_");
+                try {
+                    ranked.add(new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1]), files.size()});
+                    files.add(file);
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    // Not one of ours
+                }
+            }
+        }
+
+        ranked.sort(Comparator.<long[]>comparingLong(run -> -run[0]).thenComparingLong(run -> run[1]));
+        List<File> best = new ArrayList<>();
+        for (long[] run : ranked) {
+            best.add(files.get((int) run[2]));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,159 @@
+package game;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Records the player's position and rotation every tick, compactly enough to keep whole runs.
+ * <p>
+ * Values are converted to fixed point and each tick stores only the change from the previous
+ * tick as a zig-zag varint, so a tick where the player moves a few pixels takes a few bytes.
+ * The encoding is read back by {@link TrajectoryReader}.
+ * <p>
+ * Every {@link #CHECKPOINT_INTERVAL} ticks the writer notes where the tick starts and the
+ * state before it, so truncating after a rewind only decodes from the nearest checkpoint.
+ */
+public class TrajectoryWriter {
+
+    /** The first four bytes of every trajectory file. */
+    static final int MAGIC = 0x57484754;
+    /** The number of ticks between checkpoints, in both the writer and the reader. */
+    static final int CHECKPOINT_INTERVAL = 64;
+
+    private byte[] bytes = new byte[4096];
+    private int length;
+    private int ticks;
+    private long lastX, lastY, lastRotation;
+
+    // Checkpoint c is the byte offset and state at tick c * CHECKPOINT_INTERVAL
+    private int[] checkpointOffsets = new int[64];
+    private long[] checkpointStates = new long[3 * 64];  // x, y, rotation per checkpoint
+    private int checkpoints = 1;  // Checkpoint 0 is the empty start
+
+    /**
+     * Appends the player's current state as the next tick.
+     *
+     * @param player The player to record.
+     */
+    public void record(Player player) {
+        long x = Fixed.fromDouble(player.position.x);
+        long y = Fixed.fromDouble(player.position.y);
+        long rotation = Fixed.fromDouble(player.rotation);
+        writeVarLong(x - lastX);
+        writeVarLong(y - lastY);
+        writeVarLong(rotation - lastRotation);
+        lastX = x;
+        lastY = y;
+        lastRotation = rotation;
+        ticks++;
+        if (ticks % CHECKPOINT_INTERVAL == 0) {
+            addCheckpoint();
+        }
+    }
+
+    /**
+     * Gets the number of ticks recorded.
+     *
+     * @return The tick count.
+     */
+    public int getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the size of the encoded trajectory, not counting the file header.
+     *
+     * @return The encoded size in bytes.
+     */
+    public int getEncodedLength() {
+        return length;
+    }
+
+    /**
+     * Drops every tick after the specified one, for example when the game is rewound. Only the
+     * ticks since the nearest checkpoint are decoded again to find where the kept ones end.
+     *
+     * @param keep The number of ticks to keep.
+     */
+    public void truncate(int keep) {
+        if (keep >= ticks) {
+            return;
+        }
+        int checkpoint = keep / CHECKPOINT_INTERVAL;
+        int position = checkpointOffsets[checkpoint];
+        long[] values = new long[3];  // x, y, rotation
+        System.arraycopy(checkpointStates, 3 * checkpoint, values, 0, 3);
+        for (int t = checkpoint * CHECKPOINT_INTERVAL; t < keep; t++) {
+            for (int v = 0; v < 3; v++) {
+                long zigzag = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[position++];
+                    zigzag |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                values[v] += (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        length = position;
+        ticks = keep;
+        lastX = values[0];
+        lastY = values[1];
+        lastRotation = values[2];
+        checkpoints = checkpoint + 1;
+    }
+
+    /**
+     * Forgets everything recorded so far, for example when the run restarts.
+     */
+    public void clear() {
+        length = 0;
+        ticks = 0;
+        lastX = lastY = lastRotation = 0;
+        checkpoints = 1;
+    }
+
+    /**
+     * Writes the trajectory to a file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[] {(byte) (MAGIC >>> 24), (byte) (MAGIC >>> 16), (byte) (MAGIC >>> 8), (byte) MAGIC});
+            out.write(bytes, 0, length);
+        }
+    }
+
+    private void addCheckpoint() {
+        if (checkpoints == checkpointOffsets.length) {
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoints * 2);
+            checkpointStates = Arrays.copyOf(checkpointStates, 3 * checkpoints * 2);
+        }
+        checkpointOffsets[checkpoints] = length;
+        checkpointStates[3 * checkpoints] = lastX;
+        checkpointStates[3 * checkpoints + 1] = lastY;
+        checkpointStates[3 * checkpoints + 2] = lastRotation;
+        checkpoints++;
+    }
+
+    private void writeVarLong(long value) {
+        if (length + 10 > bytes.length) {
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+        }
+        // Zig-zag so small negative deltas stay small
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        bytes[length++] = (byte) zigzag;
+    }
+}
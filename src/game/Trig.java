@@ -0,0 +1,93 @@
+package game;
+
+/**
+ * Precomputed sine and cosine tables for whole-degree angles.
+ * Rotations in the game only ever change in whole degrees, so a table lookup
+ * replaces the Math.toRadians/Math.sin/Math.cos calls in the transform loop.
+ */
+final class Trig {
+
+    /** Number of entries in each table, one per degree. */
+    static final int DEGREES = 360;
+
+    private static final double[] SIN = new double[DEGREES];
+    private static final double[] COS = new double[DEGREES];
+    private static final long[] SIN_FIXED = new long[DEGREES];
+    private static final long[] COS_FIXED = new long[DEGREES];
+
+    static {
+        for (int i = 0; i < DEGREES; i++) {
+            // StrictMath keeps every table bit-identical on every JVM, which replays
+            // and state hashing rely on even outside fixed-point mode
+            double angle = StrictMath.toRadians(i);
+            SIN[i] = StrictMath.sin(angle);
+            COS[i] = StrictMath.cos(angle);
+            SIN_FIXED[i] = Math.round(SIN[i] * Fixed.ONE);
+            COS_FIXED[i] = Math.round(COS[i] * Fixed.ONE);
+        }
+    }
+
+    private Trig() {
+    }
+
+    /**
+     * Wraps any whole-degree angle into the range 0-359.
+     *
+     * @param degrees The angle in degrees, possibly negative or above 360.
+     * @return The equivalent table index.
+     */
+    static int normalize(int degrees) {
+        int d = degrees % DEGREES;
+        return d < 0 ? d + DEGREES : d;
+    }
+
+    /**
+     * Checks whether a rotation lands exactly on a whole degree.
+     *
+     * @param degrees The rotation in degrees.
+     * @return True if the tables can be used for this rotation.
+     */
+    static boolean isWholeDegree(double degrees) {
+        return degrees == Math.rint(degrees) && Math.abs(degrees) < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Gets the sine of a whole-degree angle.
+     *
+     * @param degrees The angle in degrees.
+     * @return The sine of the angle.
+     */
+    static double sin(int degrees) {
+        return SIN[normalize(degrees)];
+    }
+
+    /**
+     * Gets the cosine of a whole-degree angle.
+     *
+     * @param degrees The angle in degrees.
+     * @return The cosine of the angle.
+     */
+    static double cos(int degrees) {
+        return COS[normalize(degrees)];
+    }
+
+    /**
+     * Gets the sine of a whole-degree angle in fixed point.
+     *
+     * @param degrees The angle in degrees.
+     * @return The sine of the angle, scaled by {@link Fixed#ONE}.
+     */
+    static long sinFixed(int degrees) {
+        return SIN_FIXED[normalize(degrees)];
+    }
+
+    /**
+     * Gets the cosine of a whole-degree angle in fixed point.
+     *
+     * @param degrees The angle in degrees.
+     * @return The cosine of the angle, scaled by {@link Fixed#ONE}.
+     */
+    static long cosFixed(int degrees) {
+        return COS_FIXED[normalize(degrees)];
+    }
+}
@@ -3,6 +3,8 @@ package game;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
@@ -29,6 +31,13 @@ public class WorldsHardestGame extends Game {
 		public long getElapsedTime() {
 			return System.currentTimeMillis() - startTime;
 		}
+
+		/**
+		 * Starts timing again from now.
+		 */
+		public void restart() {
+			startTime = System.currentTimeMillis();
+		}
 	}
 
 	// Inner class: Score
@@ -59,11 +68,29 @@ public class WorldsHardestGame extends Game {
 		public int getScore() {
 			return score;
 		}
+
+		/**
+		 * Sets the current score, for example when rewinding.
+		 *
+		 * @param score The new score.
+		 */
+		public void setScore(int score) {
+			this.score = score;
+		}
 	}
 
+	protected static final int LEVEL = 1;
 	private Timer gameTimer;
 	protected double elapsedTime;
+	protected long ticks;  // Simulation ticks since the run started
 	private Score playerScore;
+	private ScoreStore scoreStore;  // Null when results are not being saved
+	protected GameEventBus events;  // Null when nothing is listening, as in headless games
+	protected static final int MAX_GHOSTS = 100;  // The best saved runs, including the previous best
+	protected TrajectoryWriter trajectory;  // Null unless this run is being recorded
+	protected GhostRenderer ghosts;  // Null when there are no past runs to race
+	protected StateHasher stateHasher;  // Null unless state hashing is enabled
+	private HashStreamWriter hashStream;
 	protected static int width = 800;
 	protected static int height = 600;
 	protected static int checkeredSize = 400;  // Adjust the size as needed
@@ -74,7 +101,13 @@ public class WorldsHardestGame extends Game {
 	protected Enemy enemy1, enemy2, enemy3, enemy4, enemy5, enemy6, enemy7, enemy8, enemy9;  // Instances of the Enemy class
 	protected SpinningRectangle spinningRectangle1;
 	protected SpinningRectangle spinningRectangle2;
+	protected ArrayList<SpinningRectangle> spinningRectangles = new ArrayList<>();
+	protected ArrayList<IntersectionDetectable> hazards = new ArrayList<>();  // Enemies, then spinning rectangles
+	protected CollisionDetector collisions = new CollisionDetector();
 	protected boolean gameCompleted = false;
+	protected static final int REWIND_TICKS = 600;  // About five seconds of practice-mode rewind
+	protected RewindBuffer rewindBuffer;  // Null in headless games, which never rewind
+	protected boolean rewinding = false;  // True while the rewind key is held
 
 	/**
 	 * Constructs the WorldsHardestGame, initializes the player, enemies, and sets up the game.
@@ -84,6 +117,133 @@ public class WorldsHardestGame extends Game {
 		this.setFocusable(true);
 		this.requestFocus();
 
+		initWorld();
+		rewindBuffer = new RewindBuffer(REWIND_TICKS, enemies.size(), spinningRectangles.size());
+
+		// Register the player as a KeyListener
+		this.addKeyListener(keyListener);
+
+		// Side effects run on the event bus thread, off the game loop
+		events = new GameEventBus();
+		events.addListener(new GameEventListener() {
+			@Override
+			public void onLevelCompleted(int score, long tick, long elapsedMillis) {
+				// Print the completion message
+				System.out.println("Congratulations! You completed the game.");
+			}
+		});
+
+		// Save finished runs so the leaderboard survives closing the window
+		try {
+			scoreStore = new ScoreStore(new File("scores"));
+			events.addListener(new GameEventListener() {
+				@Override
+				public void onLevelCompleted(int score, long tick, long elapsedMillis) {
+					scoreStore.record(new RunResult(LEVEL, score, tick, elapsedMillis, null));
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		// Record this run and race the best saved runs as ghosts
+		try {
+			TrajectoryStore trajectoryStore = new TrajectoryStore(new File("scores", "ghosts"), MAX_GHOSTS);
+			ghosts = new GhostRenderer(trajectoryStore.best(MAX_GHOSTS));
+			trajectory = new TrajectoryWriter();
+			events.addListener(new GameEventListener() {
+				@Override
+				public void onLevelCompleted(int score, long tick, long elapsedMillis) {
+					try {
+						trajectoryStore.save(trajectory, score, tick);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			events.close();
+			if (ghosts != null) {
+				ghosts.close();
+			}
+			if (scoreStore != null) {
+				try {
+					scoreStore.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}));
+	}
+
+	/**
+	 * Constructs the WorldsHardestGame without a window. Used by {@link #createHeadless()}.
+	 *
+	 * @param headless Distinguishes this constructor from the windowed one.
+	 */
+	private WorldsHardestGame(boolean headless) {
+		super(800, 600);
+		initWorld();
+	}
+
+	/**
+	 * Creates a game that is never shown on screen, for offscreen rendering and simulation.
+	 *
+	 * @return A new game with the same starting world as the windowed one.
+	 */
+	static WorldsHardestGame createHeadless() {
+		return new WorldsHardestGame(true);
+	}
+
+	/**
+	 * Puts the game back to its starting state, as if it had just been constructed. The
+	 * existing entities are moved back in place, so resetting allocates nothing.
+	 */
+	void reset() {
+		player.reset();
+		enemies.forEach(Enemy::reset);
+		spinningRectangles.forEach(SpinningRectangle::reset);
+		gameCompleted = false;
+		ticks = 0;
+		gameTimer.restart();
+		playerScore.setScore(0);
+		if (rewindBuffer != null) {
+			rewindBuffer.clear();
+		}
+
+		if (stateHasher != null) {
+			stateHasher.rehash(this);
+		}
+	}
+
+	/**
+	 * Starts hashing the simulation state every tick and writing the hashes to a file, for
+	 * comparing runs with {@link DesyncBisect}. The file is closed when the program exits.
+	 *
+	 * @param file The hash stream file to write.
+	 * @throws IOException If the file cannot be created.
+	 */
+	void enableStateHashing(File file) throws IOException {
+		stateHasher = new StateHasher(this);
+		HashStreamWriter stream = new HashStreamWriter(file, stateHasher.getEntityCount());
+		hashStream = stream;
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}));
+	}
+
+	/**
+	 * Creates the player, enemies, spinning rectangles, timer and score.
+	 */
+	private void initWorld() {
 		// Initialize the player here
 		player = new Player(new Point(215, 290), 0);
 		enemy1 = new Enemy(280, 140, 10, 4.0);
@@ -109,14 +269,35 @@ public class WorldsHardestGame extends Game {
 		enemies.add(enemy8);
 		enemies.add(enemy9);
 
-		// Register the player as a KeyListener
-		this.addKeyListener(keyListener);
+		spinningRectangles.add(spinningRectangle1);
+		spinningRectangles.add(spinningRectangle2);
+
+		hazards.addAll(enemies);
+		hazards.addAll(spinningRectangles);
 
 		this.gameTimer = new Timer();
 
 		this.playerScore = new Score();
 	}
 
+	/**
+	 * Gets the player's current score.
+	 *
+	 * @return The score.
+	 */
+	int getPlayerScore() {
+		return playerScore.getScore();
+	}
+
+	/**
+	 * Sets the player's current score, used when restoring a saved state.
+	 *
+	 * @param score The new score.
+	 */
+	void setPlayerScore(int score) {
+		playerScore.setScore(score);
+	}
+
 	/**
 	 * Checks if the player is in the right green area.
 	 *
@@ -134,14 +315,119 @@ public class WorldsHardestGame extends Game {
 				playerY >= rightGreenY && playerY <= rightGreenY + checkeredSize;
 	}
 
+	/**
+	 * Advances the simulation by one tick: checks for completion, moves the enemies and spinning
+	 * rectangles, respawns the player if any of them touch it, then moves the player. The player
+	 * is hit at most once per tick, by the first hazard in {@link #hazards} order.
+	 */
+	protected void tick() {
+		if (player != null) {
+			if (isInRightGreenArea(player) && !gameCompleted) {
+				// Set the gameCompleted flag to true to prevent further movement
+				gameCompleted = true;
+
+				if (events != null) {
+					events.publishLevelCompleted(playerScore.getScore(), ticks, gameTimer.getElapsedTime());
+				}
+			}
+		}
+
+		ticks++;
+
+		if (enemies != null) {
+			enemies.forEach(Enemy::move);
+		}
+
+		if (spinningRectangles != null) {
+			spinningRectangles.forEach(SpinningRectangle::move);
+		}
+
+		if (stateHasher != null) {
+			for (int i = 0; i < hazards.size(); i++) {
+				stateHasher.hazardChanged(i, hazards.get(i));
+			}
+		}
+
+		// Find a hit first, which may run in parallel, then resolve it here
+		if (player != null) {
+			IntersectionDetectable hit = collisions.findFirstHit(hazards, player);
+			if (hit != null) {
+				playerHit(hit);
+			}
+
+			// The next swept check starts from where the player is now
+			player.rememberPosition();
+		}
+
+		if (player != null && !gameCompleted) {
+			// Check for collisions before moving
+			player.move(checkeredX, checkeredY, checkeredSize);
+
+			if (stateHasher != null) {
+				stateHasher.playerChanged(player);
+			}
+		}
+
+		if (hashStream != null) {
+			try {
+				hashStream.write(stateHasher, ticks);
+			} catch (IOException e) {
+				e.printStackTrace();
+				hashStream = null;
+			}
+		}
+	}
+
+	/**
+	 * Takes a point off the score, respawns the player and publishes the events for the hit.
+	 *
+	 * @param hazard The hazard that hit the player.
+	 */
+	private void playerHit(IntersectionDetectable hazard) {
+		// Respawn player in the left green area
+		playerScore.decreaseScore(1);
+		player.respawn();
+
+		if (stateHasher != null) {
+			stateHasher.playerChanged(player);
+			stateHasher.scoreChanged(playerScore.getScore());
+		}
+
+		if (events != null) {
+			events.publishPlayerDied(hazard, playerScore.getScore(), ticks);
+			events.publishScoreChanged(playerScore.getScore(), ticks);
+		}
+	}
+
 	/**
 	 * Draws the game elements, including the background, checkered pattern, enemies, spinning rectangles,
-	 * and the player. Also handles player movement and collision detection.
+	 * and the player. Also advances the simulation, or steps it back while rewinding.
 	 *
 	 * @param brush The Graphics object used for painting.
 	 */
 	public void paint(Graphics brush) {
 		if (!gameCompleted) {
+			// Scrub back through recorded ticks while rewinding, holding at the oldest one, otherwise
+			// play on and record
+			if (rewinding && rewindBuffer != null) {
+				if (rewindBuffer.rewind(this, 1) && trajectory != null) {
+					trajectory.truncate((int) ticks);
+				}
+			} else {
+				tick();
+				if (rewindBuffer != null) {
+					rewindBuffer.record(this);
+				}
+
+				// Once completed, the trajectory belongs to the listener saving it
+				if (trajectory != null && !gameCompleted) {
+					trajectory.record(player);
+				}
+			}
+			if (ghosts != null) {
+				ghosts.advanceTo(ticks);
+			}
+
 			// Draw the light blue background
 			brush.setColor(new Color(173, 216, 230));  // Light blue color
 			brush.fillRect(0, 0, width, height);
@@ -177,56 +463,21 @@ public class WorldsHardestGame extends Game {
 			// Draw the right translucent green area on top of the checkered pattern
 			brush.fillRect(checkeredX + 7 * checkpointWidth, checkeredY, checkpointWidth, checkeredSize);
 
-			if (player != null) {
-				if (isInRightGreenArea(player) && !gameCompleted) {
-					// Print the completion message
-					System.out.println("Congratulations! You completed the game.");
-
-					// Set the gameCompleted flag to true to prevent further movement
-					gameCompleted = true;
-				}
-			}
-
 			if (enemies != null) {
-				enemies.forEach(enemy -> {
-					enemy.move();
-
-					if (player != null && enemy.intersects(player)) {
-						// Respawn player in the left green area
-						playerScore.decreaseScore(1);
-						player.respawn();
-					}
-
-					enemy.paint(brush);
-				});
+				enemies.forEach(enemy -> enemy.paint(brush));
 			}
 
-			if (spinningRectangle1 != null && spinningRectangle2 != null) {
-				spinningRectangle1.move();
-
-				if (player != null && spinningRectangle1.intersects(player)) {
-					// Respawn player in the left green area
-					playerScore.decreaseScore(1);
-					player.respawn();
-				}
-
-				spinningRectangle1.paint(brush);
-				spinningRectangle2.move();
-
-				if (player != null && spinningRectangle2.intersects(player)) {
-					// Respawn player in the left green area
-					playerScore.decreaseScore(1);
-					player.respawn();
-				}
+			if (spinningRectangles != null) {
+				spinningRectangles.forEach(spinningRectangle -> spinningRectangle.paint(brush));
+			}
 
-				spinningRectangle2.paint(brush);
+			if (ghosts != null) {
+				ghosts.paint(brush);
 			}
 
 			// Draw the player
 			brush.setColor(Color.red);
 			if (player != null && !gameCompleted) {
-				// Check for collisions before moving
-				player.move(checkeredX, checkeredY, checkeredSize);
 				player.paint(brush);
 
 				// Display square's position for debugging
@@ -245,6 +496,17 @@ public class WorldsHardestGame extends Game {
 			brush.drawString("Game Won!!", width / 2 - 200, height / 2);
 			brush.setFont(new Font("Arial", Font.BOLD, 24));
 			brush.drawString("Player's Final Score: " + playerScore.getScore(), width / 2 - 200, height / 2 + 100);
+
+			// List the best saved runs under the final score
+			if (scoreStore != null) {
+				brush.setFont(new Font("Arial", Font.PLAIN, 16));
+				int line = 0;
+				for (RunResult run : scoreStore.top(LEVEL, 5)) {
+					brush.drawString((line + 1) + ". Score " + run.getScore() + " in " + run.getElapsedMillis() / 1000.0 + " seconds",
+							width / 2 - 200, height / 2 + 140 + 20 * line);
+					line++;
+				}
+			}
 		}
 	}
 
@@ -272,6 +534,9 @@ public class WorldsHardestGame extends Game {
 				case KeyEvent.VK_E:
 					player.setSpinning(true);
 					break;
+				case KeyEvent.VK_R:
+					rewinding = true;  // Scrub back while held
+					break;
 				// Handle other keys if needed
 			}
 		}
@@ -296,6 +561,9 @@ public class WorldsHardestGame extends Game {
 				case KeyEvent.VK_E:
 					player.setSpinning(false);
 					break;
+				case KeyEvent.VK_R:
+					rewinding = false;
+					break;
 				// Handle other keys if needed
 			}
 		}
@@ -357,6 +625,17 @@ public class WorldsHardestGame extends Game {
 	 */
 	public static void main(String[] args) {
 		WorldsHardestGame game = new WorldsHardestGame();
+
+		// Record per-tick state hashes when asked, for desync checks
+		String hashStream = System.getProperty("game.hashStream");
+		if (hashStream != null) {
+			try {
+				game.enableStateHashing(new File(hashStream));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
 		game.runGameLoop();
 	}
 }